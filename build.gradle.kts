@@ -8,6 +8,12 @@ plugins {
 group = "com.tuca"
 version = "1.0-SNAPSHOT"
 
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
 repositories {
     mavenCentral()
 }
@@ -15,10 +21,13 @@ repositories {
 dependencies {
     implementation(libs.spring.boot.starter)
     implementation(libs.spring.boot.jpa)
+    implementation(libs.spring.boot.actuator)
     implementation(libs.kafka.clients) {
         exclude(group = "org.slf4j")
     }
     implementation(libs.mysql.connector)
+    implementation(libs.flyway.core)
+    implementation(libs.flyway.mysql)
     implementation(libs.org.json)
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
@@ -31,6 +40,15 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// Benchmarks live with the tests so they never ship in the application jar.
+tasks.register<JavaExec>("benchmark") {
+    group = "verification"
+    description = "Runs the insert and store benchmarks, -Pembedded for the file store."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass = "com.tuca.benchmark.BenchmarkApplication"
+    if (project.hasProperty("embedded")) args("--spring.profiles.active=embedded")
+}
+
 tasks.jar {
     manifest {
         attributes["Main-Class"] = "com.tuca.Main"
@@ -1,5 +1,8 @@
 package com.tuca;
 
+import com.tuca.cache.CacheVersion;
+import com.tuca.cache.TaskAggregates;
+import com.tuca.event.EventType;
 import com.tuca.model.*;
 import com.tuca.service.ProducerService;
 import com.tuca.service.TaskService;
@@ -21,7 +24,9 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @SpringBootApplication
 public class Main implements CommandLineRunner {
@@ -36,13 +41,18 @@ public class Main implements CommandLineRunner {
     private final ProducerService producerService;
     private JTextField searchField;
     private JComboBox<String> statusFilterCombo;
-    private int overdueCount = 0;
-    private int completeCount = 0;
-    private int pendingCount = 0;
+    private long overdueCount = 0;
+    private long completeCount = 0;
+    private long pendingCount = 0;
+
+    private final Set<Long> selectedTaskIDs = new LinkedHashSet<>();
+    private JPanel bulkActionPanel;
+    private JLabel selectionLabel;
 
     private static final String DEFAULT_SEARCH_STRING = "Buscar por descrição, responsável ou ID...";
     private static final String DEFAULT_FONT_NAME = "Segoe UI";
     private static final String DEFAULT_COMPLETE_STRING = "Completa";
+    private static final int MAX_SEARCH_RESULTS = 200;
 
 
     private String currentStatusFilter = "Todas";
@@ -93,7 +103,7 @@ public class Main implements CommandLineRunner {
     @SneakyThrows
     private void handleApplicationClose() {
 
-        producerService.sendEvent("CLOSING_PROGRAM");
+        producerService.sendEvent(EventType.CLOSING_PROGRAM);
         refreshTasks();
         frame.dispose();
         log.info("[Tasks] Application closed");
@@ -109,7 +119,14 @@ public class Main implements CommandLineRunner {
                 .withBorder(20, 30, 20, 30)
                 .build();
 
-        mainContent.add(createModernFilterPanel(), BorderLayout.NORTH);
+        TPanel topPanel = new TPanel.Builder()
+                .withBorderLayout(0, 12)
+                .withBackground(BACKGROUND)
+                .build();
+        topPanel.getPanel().add(createModernFilterPanel(), BorderLayout.NORTH);
+        topPanel.getPanel().add(createBulkActionPanel(), BorderLayout.SOUTH);
+
+        mainContent.add(topPanel.getPanel(), BorderLayout.NORTH);
         mainContent.add(scrollPane, BorderLayout.CENTER);
 
         frame.add(mainContent.getPanel(), BorderLayout.CENTER);
@@ -369,6 +386,106 @@ public class Main implements CommandLineRunner {
         refreshTasks();
     }
 
+    private JPanel createBulkActionPanel() {
+        bulkActionPanel = new TPanel.Builder()
+                .withFlowLayout(FlowLayout.LEFT, 12, 0)
+                .withBackground(CARD_BG)
+                .withBorder(BORDER, 1, true, 12, 25, 12, 25).build().getPanel();
+
+        selectionLabel = new TLabel.Builder()
+                .withFont(DEFAULT_FONT_NAME, Font.BOLD, 14)
+                .withForeground(TEXT_PRIMARY)
+                .build().jLabel();
+
+        JButton completeButton = new TButton.Builder()
+                .asDefaultButton(ACCENT, ACCENT_HOVER, e -> handleBulkComplete())
+                .withText("Completar")
+                .withPreferredSize(130, 36)
+                .build().button();
+
+        JButton statusButton = new TButton.Builder()
+                .asDefaultButton(new Color(139, 92, 246), new Color(124, 58, 237), e -> handleBulkEditStatus())
+                .withText("Status")
+                .withPreferredSize(130, 36)
+                .build().button();
+
+        JButton deleteButton = new TButton.Builder()
+                .asDefaultButton(DANGER, DANGER_HOVER, e -> handleBulkDelete())
+                .withText("Deletar")
+                .withPreferredSize(130, 36)
+                .build().button();
+
+        JButton clearButton = new TButton.Builder()
+                .asDefaultButton(new Color(148, 163, 184), new Color(100, 116, 139), e -> clearSelection())
+                .withText("Limpar seleção")
+                .withPreferredSize(150, 36)
+                .build().button();
+
+        bulkActionPanel.add(selectionLabel);
+        bulkActionPanel.add(completeButton);
+        bulkActionPanel.add(statusButton);
+        bulkActionPanel.add(deleteButton);
+        bulkActionPanel.add(clearButton);
+
+        updateBulkActionPanel();
+        return bulkActionPanel;
+    }
+
+    private void updateBulkActionPanel() {
+        if (bulkActionPanel == null) return;
+
+        int selected = selectedTaskIDs.size();
+        selectionLabel.setText(selected == 1 ? "1 tarefa selecionada" : selected + " tarefas selecionadas");
+        bulkActionPanel.setVisible(selected > 0);
+        bulkActionPanel.revalidate();
+        bulkActionPanel.repaint();
+    }
+
+    private void toggleSelection(Task task, boolean selected) {
+        if (selected) {
+            selectedTaskIDs.add(task.getId());
+        } else {
+            selectedTaskIDs.remove(task.getId());
+        }
+        updateBulkActionPanel();
+    }
+
+    private void clearSelection() {
+        selectedTaskIDs.clear();
+        refreshTasks();
+    }
+
+    private void handleBulkComplete() {
+        int option = JOptionPane.showConfirmDialog(frame, String.format("Deseja realmente completar %d tarefas?", selectedTaskIDs.size()), "Confirmação", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+
+        if (option == JOptionPane.YES_OPTION) {
+            producerService.sendBulkEvent(EventType.BULK_UPDATE_STATUS, List.copyOf(selectedTaskIDs), DEFAULT_COMPLETE_STRING);
+            log.info("[Tasks] {} tasks have been completed.", selectedTaskIDs.size());
+            clearSelection();
+        }
+    }
+
+    private void handleBulkEditStatus() {
+        String[] options = {"Pendente", DEFAULT_COMPLETE_STRING, "Incompleta", "Atrasada"};
+        String newStatus = (String) JOptionPane.showInputDialog(frame, String.format("Novo status para %d tarefas:", selectedTaskIDs.size()), "Alterar Status", JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+
+        if (newStatus != null) {
+            producerService.sendBulkEvent(EventType.BULK_UPDATE_STATUS, List.copyOf(selectedTaskIDs), newStatus.trim());
+            showModernDialog("Status atualizado!");
+            clearSelection();
+        }
+    }
+
+    private void handleBulkDelete() {
+        int option = JOptionPane.showConfirmDialog(frame, String.format("Deseja realmente deletar %d tarefas? Esta ação não pode ser desfeita.", selectedTaskIDs.size()), "Confirmação", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+
+        if (option == JOptionPane.YES_OPTION) {
+            producerService.sendBulkEvent(EventType.BULK_DELETE, List.copyOf(selectedTaskIDs), null);
+            log.info("[Tasks] {} tasks have been deleted.", selectedTaskIDs.size());
+            clearSelection();
+        }
+    }
+
     private JPanel createTasksContainerPanel() {
         return new TPanel.Builder()
                 .withBoxLayout(BoxLayout.Y_AXIS)
@@ -442,14 +559,14 @@ public class Main implements CommandLineRunner {
             int days = Integer.parseInt(daysStr);
             long dayMillis = 86400000L;
             long nowMillis = System.currentTimeMillis();
-            long expiryDateMillis = nowMillis - (dayMillis * days);
+            long expiryDateMillis = nowMillis + (dayMillis * days);
 
             Task createdTask = taskService.create(new Task(ownerName, description, expiryDateMillis));
 
 
             long taskID = createdTask.getId();
 
-            producerService.sendEvent("CREATE_TASK", taskID);
+            producerService.sendEvent(EventType.CREATE_TASK, taskID);
             showModernDialog("Tarefa criada com sucesso!");
             refreshTasks();
         } catch (NumberFormatException ex) {
@@ -463,22 +580,16 @@ public class Main implements CommandLineRunner {
         SwingUtilities.invokeLater(() -> {
             taskPanel.removeAll();
 
-            List<Task> tasks = taskService.getAll();
-            completeCount = 0;
-            overdueCount = 0;
-            pendingCount = 0;
-
-            tasks.forEach(task -> {
-                switch (task.getStatus().toUpperCase()) {
-                    case "COMPLETA" -> completeCount++;
-                    case "ATRASADA" -> overdueCount++;
-                    case "PENDENTE", "INCOMPLETA" -> pendingCount++;
-                    default -> log.warn("[Tasks] Task status don't exists.");
-                }
-            });
+            TaskAggregates aggregates = taskService.getAggregates();
+            completeCount = aggregates.count(TaskAggregates.Group.COMPLETE);
+            overdueCount = aggregates.count(TaskAggregates.Group.OVERDUE);
+            pendingCount = aggregates.count(TaskAggregates.Group.PENDING);
 
+            CacheVersion view = taskService.snapshot();
+            selectedTaskIDs.removeIf(taskID -> view.getByID(taskID) == null);
+            updateBulkActionPanel();
 
-            List<Task> filteredTasks = filterTasks(tasks);
+            List<Task> filteredTasks = filterTasks(view);
 
             if (filteredTasks.isEmpty()) {
                 displayModernEmptyState();
@@ -493,18 +604,19 @@ public class Main implements CommandLineRunner {
         });
     }
 
-    private List<Task> filterTasks(List<Task> tasks) {
-        return tasks.stream().filter(this::matchesStatusFilter).filter(this::matchesSearchFilter).toList();
+    private List<Task> filterTasks(CacheVersion view) {
+        if (currentSearchText.isEmpty()) {
+            return isAllStatusFilter() ? view.getTasks() : view.getByStatus(currentStatusFilter);
+        }
+        return taskService.search(currentSearchText, MAX_SEARCH_RESULTS, this::matchesStatusFilter);
     }
 
-    private boolean matchesStatusFilter(Task task) {
-        return currentStatusFilter.equalsIgnoreCase("TODAS") || task.getStatus().trim().equalsIgnoreCase(currentStatusFilter);
+    private boolean isAllStatusFilter() {
+        return currentStatusFilter.equalsIgnoreCase("TODAS");
     }
 
-    private boolean matchesSearchFilter(Task task) {
-        if (currentSearchText.isEmpty()) return true;
-
-        return task.getDescription().toLowerCase().contains(currentSearchText) || task.getOwnerName().toLowerCase().contains(currentSearchText) || String.valueOf(task.getId()).contains(currentSearchText);
+    private boolean matchesStatusFilter(Task task) {
+        return isAllStatusFilter() || task.getStatus().trim().equalsIgnoreCase(currentStatusFilter);
     }
 
     private void displayTasks(List<Task> tasks) {
@@ -562,7 +674,19 @@ public class Main implements CommandLineRunner {
                 .withBackground(getStatusColor(task.getStatus()))
                 .build().getPanel();
 
-        card.add(statusIndicator, BorderLayout.WEST);
+        JCheckBox selectBox = new JCheckBox();
+        selectBox.setBackground(CARD_BG);
+        selectBox.setSelected(selectedTaskIDs.contains(task.getId()));
+        selectBox.addItemListener(e -> toggleSelection(task, selectBox.isSelected()));
+
+        TPanel selectPanel = new TPanel.Builder()
+                .withBorderLayout(12, 0)
+                .withBackground(CARD_BG)
+                .build();
+        selectPanel.getPanel().add(statusIndicator, BorderLayout.WEST);
+        selectPanel.getPanel().add(selectBox, BorderLayout.CENTER);
+
+        card.add(selectPanel.getPanel(), BorderLayout.WEST);
         card.add(createModernTaskInfo(task), BorderLayout.CENTER);
         card.add(createModernActionButtons(task), BorderLayout.EAST);
 
@@ -706,7 +830,7 @@ public class Main implements CommandLineRunner {
         String newDescription = (String) JOptionPane.showInputDialog(frame, "Nova descrição:", "Editar Tarefa", JOptionPane.PLAIN_MESSAGE, null, null, task.getDescription());
 
         if (newDescription != null && !newDescription.trim().isEmpty()) {
-            producerService.sendEvent(task, "UPDATE_DESCRIPTION", newDescription.trim());
+            producerService.sendEvent(task, EventType.UPDATE_DESCRIPTION, newDescription.trim());
             showModernDialog("Descrição atualizada!");
             refreshTasks();
         }
@@ -717,7 +841,7 @@ public class Main implements CommandLineRunner {
         String newStatus = (String) JOptionPane.showInputDialog(frame, "Escolha o novo status:", "Alterar Status", JOptionPane.PLAIN_MESSAGE, null, options, task.getStatus());
 
         if (newStatus != null) {
-            producerService.sendEvent(task, "UPDATE_STATUS", newStatus.trim());
+            producerService.sendEvent(task, EventType.UPDATE_STATUS, newStatus.trim());
             showModernDialog("Status atualizado!");
             refreshTasks();
         }
@@ -727,7 +851,7 @@ public class Main implements CommandLineRunner {
         int option = JOptionPane.showConfirmDialog(frame, "Deseja realmente completar esta tarefa?", "Confirmação", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
 
         if (option == JOptionPane.YES_OPTION) {
-            producerService.sendEvent(task, "UPDATE_STATUS", DEFAULT_COMPLETE_STRING);
+            producerService.sendEvent(task, EventType.UPDATE_STATUS, DEFAULT_COMPLETE_STRING);
             log.info("[Tasks] Task with id: {} has been completed.", task.getId());
             refreshTasks();
         }
@@ -738,7 +862,7 @@ public class Main implements CommandLineRunner {
         int option = JOptionPane.showConfirmDialog(frame, "Deseja realmente deletar esta tarefa? Esta ação não pode ser desfeita.", "Confirmação", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 
         if (option == JOptionPane.YES_OPTION) {
-            producerService.sendEvent(task, "DELETE_TASK", String.valueOf(task.getId()));
+            producerService.sendEvent(task, EventType.DELETE_TASK, String.valueOf(task.getId()));
             log.info("[Tasks] Task with ID: {} has been deleted.", task.getId());
             refreshTasks();
         }
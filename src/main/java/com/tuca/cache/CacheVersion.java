@@ -0,0 +1,90 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, consistent view of the cache: the tasks by id plus the status and owner indexes built
+ * from exactly those tasks. {@link TaskCache} publishes a new version per write, readers keep using
+ * whichever version they picked up without taking any lock.
+ */
+public final class CacheVersion {
+
+    static final CacheVersion EMPTY = new CacheVersion(LongTrie.empty(), TrieIndex.EMPTY, TrieIndex.EMPTY);
+
+    private static final Comparator<Task> BY_ID = Comparator.comparingLong(Task::getId);
+
+    private final LongTrie<Task> tasks;
+    private final TrieIndex byStatus;
+    private final TrieIndex byOwner;
+
+    private CacheVersion(LongTrie<Task> tasks, TrieIndex byStatus, TrieIndex byOwner) {
+        this.tasks = tasks;
+        this.byStatus = byStatus;
+        this.byOwner = byOwner;
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    public Task getByID(long taskID) {
+        return tasks.get(taskID);
+    }
+
+    public List<Task> getTasks() {
+        return sorted(tasks);
+    }
+
+    public List<Task> getByStatus(String status) {
+        return sorted(byStatus.get(TaskCache.statusKey(status)));
+    }
+
+    public int countByStatus(String status) {
+        return byStatus.get(TaskCache.statusKey(status)).size();
+    }
+
+    public List<Task> getByOwner(String ownerName) {
+        return sorted(byOwner.get(ownerKey(ownerName)));
+    }
+
+    public int countByOwner(String ownerName) {
+        return byOwner.get(ownerKey(ownerName)).size();
+    }
+
+    CacheVersion with(Task task) {
+        Task previous = tasks.get(task.getId());
+        if (previous == task) return this;
+
+        TrieIndex status = byStatus;
+        TrieIndex owner = byOwner;
+        if (previous != null) {
+            status = status.remove(TaskCache.statusKey(previous.getStatus()), previous.getId());
+            owner = owner.remove(ownerKey(previous.getOwnerName()), previous.getId());
+        }
+        status = status.add(TaskCache.statusKey(task.getStatus()), task);
+        owner = owner.add(ownerKey(task.getOwnerName()), task);
+        return new CacheVersion(tasks.put(task.getId(), task), status, owner);
+    }
+
+    CacheVersion without(long taskID) {
+        Task previous = tasks.get(taskID);
+        if (previous == null) return this;
+
+        return new CacheVersion(tasks.remove(taskID),
+                byStatus.remove(TaskCache.statusKey(previous.getStatus()), taskID),
+                byOwner.remove(ownerKey(previous.getOwnerName()), taskID));
+    }
+
+    private static String ownerKey(String ownerName) {
+        return ownerName == null ? "" : ownerName;
+    }
+
+    private static List<Task> sorted(LongTrie<Task> tasks) {
+        List<Task> result = tasks.values();
+        result.sort(BY_ID);
+        return result;
+    }
+}
@@ -0,0 +1,244 @@
+package com.tuca.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Concurrent hash map keyed on primitive {@code long}s.
+ * <p>
+ * Keys are spread over lock-striped segments, each one an open addressing table with linear probing,
+ * so lookups never box the key and never walk more than a probe sequence. Reads are optimistic and
+ * only fall back to the segment read lock when they race with a writer.
+ */
+public class ConcurrentLongMap<V> {
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int SEGMENT_SHIFT = 64 - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap() {
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    public V get(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("Null values are not supported");
+        long hash = hash(key);
+        return segmentFor(hash).put(key, hash, value);
+    }
+
+    public V remove(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void forEach(Consumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        forEach(values::add);
+        return values;
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments[(int) (hash >>> SEGMENT_SHIFT)];
+    }
+
+    private static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private static final class Segment<V> {
+
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+        private volatile int size;
+
+        private V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                V value = find(table, key, hash);
+                if (lock.validate(stamp)) return value;
+            }
+
+            stamp = lock.readLock();
+            try {
+                return find(table, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V find(Table current, long key, long hash) {
+            int index = (int) hash & current.mask;
+            for (int probes = 0; probes <= current.mask; probes++) {
+                Object value = current.values[index];
+                if (value == null) return null;
+                if (current.keys[index] == key) return (V) value;
+                index = (index + 1) & current.mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V put(long key, long hash, V value) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                int index = (int) hash & current.mask;
+                while (current.values[index] != null) {
+                    if (current.keys[index] == key) {
+                        V previous = (V) current.values[index];
+                        current.values[index] = value;
+                        return previous;
+                    }
+                    index = (index + 1) & current.mask;
+                }
+
+                current.keys[index] = key;
+                current.values[index] = value;
+                size++;
+                if (size * 4 > current.keys.length * 3) resize(current);
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V remove(long key, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                int index = (int) hash & current.mask;
+                while (current.values[index] != null) {
+                    if (current.keys[index] == key) {
+                        V previous = (V) current.values[index];
+                        shiftBack(current, index);
+                        size--;
+                        return previous;
+                    }
+                    index = (index + 1) & current.mask;
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // Backward shift deletion keeps probe sequences intact without tombstones.
+        private void shiftBack(Table current, int freed) {
+            int index = freed;
+            while (true) {
+                index = (index + 1) & current.mask;
+                if (current.values[index] == null) break;
+
+                int home = (int) hash(current.keys[index]) & current.mask;
+                boolean movable = freed <= index ? (home <= freed || home > index) : (home <= freed && home > index);
+                if (movable) {
+                    current.keys[freed] = current.keys[index];
+                    current.values[freed] = current.values[index];
+                    freed = index;
+                }
+            }
+            current.keys[freed] = 0L;
+            current.values[freed] = null;
+        }
+
+        private void resize(Table current) {
+            Table resized = new Table(current.keys.length << 1);
+            for (int i = 0; i < current.keys.length; i++) {
+                Object value = current.values[i];
+                if (value == null) continue;
+
+                int index = (int) hash(current.keys[i]) & resized.mask;
+                while (resized.values[index] != null) {
+                    index = (index + 1) & resized.mask;
+                }
+                resized.keys[index] = current.keys[i];
+                resized.values[index] = value;
+            }
+            table = resized;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void forEach(Consumer<? super V> action) {
+            long stamp = lock.readLock();
+            try {
+                Table current = table;
+                for (Object value : current.values) {
+                    if (value != null) action.accept((V) value);
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(INITIAL_CAPACITY);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.tuca.cache;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Open addressing set of primitive {@code long}s. Not thread safe, callers guard it with their own lock.
+ */
+public class LongHashSet extends LongOpenTable {
+
+    public boolean add(long key) {
+        int index = indexOf(key);
+        if (used[index]) return false;
+
+        insert(index, key);
+        return true;
+    }
+
+    public boolean contains(long key) {
+        return used[indexOf(key)];
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) action.accept(keys[i]);
+        }
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+    }
+
+    @Override
+    void clearValue(int index) {
+    }
+
+    @Override
+    void rehashValues(int[] targets, int capacity) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.tuca.cache;
+
+/**
+ * Open addressing map from primitive {@code long} keys to {@code int} bit masks. Not thread safe, callers
+ * guard it with their own lock.
+ */
+public class LongIntMap extends LongOpenTable {
+
+    private int[] values = new int[INITIAL_CAPACITY];
+
+    public int get(long key) {
+        int index = indexOf(key);
+        return used[index] ? values[index] : 0;
+    }
+
+    public void or(long key, int bits) {
+        int index = indexOf(key);
+        if (used[index]) {
+            values[index] |= bits;
+            return;
+        }
+
+        values[index] = bits;
+        insert(index, key);
+    }
+
+    public boolean containsKey(long key) {
+        return used[indexOf(key)];
+    }
+
+    @Override
+    public long[] sortedKeys() {
+        return super.sortedKeys();
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int index) {
+        values[index] = 0;
+    }
+
+    @Override
+    void rehashValues(int[] targets, int capacity) {
+        int[] rehashed = new int[capacity];
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] >= 0) rehashed[targets[i]] = values[i];
+        }
+        values = rehashed;
+    }
+}
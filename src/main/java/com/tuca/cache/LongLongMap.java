@@ -0,0 +1,48 @@
+package com.tuca.cache;
+
+/**
+ * Open addressing map from primitive {@code long} keys to {@code long} high-water marks. Not thread safe,
+ * callers guard it with their own lock.
+ */
+public class LongLongMap extends LongOpenTable {
+
+    private long[] values = new long[INITIAL_CAPACITY];
+
+    public long get(long key, long missing) {
+        int index = indexOf(key);
+        return used[index] ? values[index] : missing;
+    }
+
+    // Stores value if it is above the current one, or the key is new; false when it is not.
+    public boolean raise(long key, long value) {
+        int index = indexOf(key);
+        if (used[index]) {
+            if (value <= values[index]) return false;
+            values[index] = value;
+            return true;
+        }
+
+        values[index] = value;
+        insert(index, key);
+        return true;
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int index) {
+        values[index] = 0L;
+    }
+
+    @Override
+    void rehashValues(int[] targets, int capacity) {
+        long[] rehashed = new long[capacity];
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] >= 0) rehashed[targets[i]] = values[i];
+        }
+        values = rehashed;
+    }
+}
@@ -0,0 +1,116 @@
+package com.tuca.cache;
+
+import java.util.Arrays;
+
+/**
+ * Linear probing over primitive {@code long} keys with backward-shift deletion, so removals leave no
+ * tombstones. Subclasses keep their values in arrays parallel to the keys. Not thread safe.
+ */
+abstract class LongOpenTable {
+
+    static final int INITIAL_CAPACITY = 8;
+
+    long[] keys = new long[INITIAL_CAPACITY];
+    boolean[] used = new boolean[INITIAL_CAPACITY];
+    private int size;
+
+    public boolean remove(long key) {
+        int index = indexOf(key);
+        if (!used[index]) return false;
+
+        shiftBack(index);
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Slot holding key, or the free slot where it would go.
+    final int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        while (used[index] && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    // Claims the free slot found by indexOf; its value must be set first, since the table may grow afterwards.
+    final void insert(int index, long key) {
+        keys[index] = key;
+        used[index] = true;
+        size++;
+        if (size * 4 > keys.length * 3) resize();
+    }
+
+    long[] sortedKeys() {
+        long[] result = new long[size];
+        int position = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) result[position++] = keys[i];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    abstract void moveValue(int from, int to);
+
+    abstract void clearValue(int index);
+
+    // Rebuilds the value arrays at capacity, the value of slot i moving to targets[i] when that is not -1.
+    abstract void rehashValues(int[] targets, int capacity);
+
+    private void shiftBack(int freed) {
+        int mask = keys.length - 1;
+        int index = freed;
+        while (true) {
+            index = (index + 1) & mask;
+            if (!used[index]) break;
+
+            int home = slot(keys[index], mask);
+            boolean movable = freed <= index ? (home <= freed || home > index) : (home <= freed && home > index);
+            if (movable) {
+                keys[freed] = keys[index];
+                moveValue(index, freed);
+                freed = index;
+            }
+        }
+        keys[freed] = 0L;
+        clearValue(freed);
+        used[freed] = false;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length << 1];
+        used = new boolean[oldKeys.length << 1];
+
+        int mask = keys.length - 1;
+        int[] targets = new int[oldKeys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            targets[i] = -1;
+            if (!oldUsed[i]) continue;
+
+            int index = slot(oldKeys[i], mask);
+            while (used[index]) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            used[index] = true;
+            targets[i] = index;
+        }
+        rehashValues(targets, keys.length);
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
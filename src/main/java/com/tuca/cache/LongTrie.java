@@ -0,0 +1,205 @@
+package com.tuca.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Persistent hash array mapped trie keyed on primitive {@code long}s.
+ * <p>
+ * Every update returns a new trie that shares all untouched nodes with the previous one, so a write
+ * copies one path of at most 13 small nodes and older versions stay valid for the readers holding them.
+ * Keys are spread with a bijective mix, so two distinct keys always diverge before the hash runs out
+ * and no collision nodes are needed.
+ */
+public final class LongTrie<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final LongTrie<?> EMPTY = new LongTrie<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private LongTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> LongTrie<V> empty() {
+        return (LongTrie<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long hash = hash(key);
+        Node node = root;
+        for (int shift = 0; node != null; shift += BITS) {
+            int bit = bit(hash, shift);
+            if ((node.bitmap & bit) == 0) return null;
+
+            Object slot = node.slots[node.index(bit)];
+            if (slot instanceof Leaf leaf) return leaf.key == key ? (V) leaf.value : null;
+            node = (Node) slot;
+        }
+        return null;
+    }
+
+    public LongTrie<V> put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("Null values are not supported");
+
+        Leaf leaf = new Leaf(key, hash(key), value);
+        boolean existed = get(key) != null;
+        Node updated = root == null ? new Node(bit(leaf.hash, 0), new Object[]{leaf}) : put(root, leaf, 0);
+        return updated == root ? this : new LongTrie<>(updated, existed ? size : size + 1);
+    }
+
+    public LongTrie<V> remove(long key) {
+        if (root == null) return this;
+
+        Object updated = remove(root, key, hash(key), 0);
+        if (updated == root) return this;
+        if (updated == null) return empty();
+        if (updated instanceof Leaf leaf) return new LongTrie<>(new Node(bit(leaf.hash, 0), new Object[]{leaf}), size - 1);
+        return new LongTrie<>((Node) updated, size - 1);
+    }
+
+    public void forEach(Consumer<? super V> action) {
+        if (root != null) forEach(root, action);
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        forEach(values::add);
+        return values;
+    }
+
+    private static Node put(Node node, Leaf leaf, int shift) {
+        int bit = bit(leaf.hash, shift);
+        int index = node.index(bit);
+
+        if ((node.bitmap & bit) == 0) {
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            slots[index] = leaf;
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            return new Node(node.bitmap | bit, slots);
+        }
+
+        Object slot = node.slots[index];
+        Object replacement;
+        if (slot instanceof Leaf existing) {
+            if (existing.key == leaf.key) {
+                if (existing.value == leaf.value) return node;
+                replacement = leaf;
+            } else {
+                replacement = merge(existing, leaf, shift + BITS);
+            }
+        } else {
+            Node child = (Node) slot;
+            Node updated = put(child, leaf, shift + BITS);
+            if (updated == child) return node;
+            replacement = updated;
+        }
+        return node.withSlot(index, replacement);
+    }
+
+    private static Node merge(Leaf first, Leaf second, int shift) {
+        int firstBit = bit(first.hash, shift);
+        int secondBit = bit(second.hash, shift);
+        if (firstBit == secondBit) return new Node(firstBit, new Object[]{merge(first, second, shift + BITS)});
+
+        Object[] slots = Integer.compareUnsigned(firstBit, secondBit) < 0
+                ? new Object[]{first, second}
+                : new Object[]{second, first};
+        return new Node(firstBit | secondBit, slots);
+    }
+
+    // Returns the same node when nothing changed, null when it became empty, or a lone leaf to inline in the parent.
+    private static Object remove(Node node, long key, long hash, int shift) {
+        int bit = bit(hash, shift);
+        if ((node.bitmap & bit) == 0) return node;
+
+        int index = node.index(bit);
+        Object slot = node.slots[index];
+        if (slot instanceof Leaf leaf) {
+            if (leaf.key != key) return node;
+            return node.withoutSlot(index, bit);
+        }
+
+        Node child = (Node) slot;
+        Object updated = remove(child, key, hash, shift + BITS);
+        if (updated == child) return node;
+        if (updated == null) return node.withoutSlot(index, bit);
+        if (updated instanceof Leaf && node.slots.length == 1) return updated;
+        return node.withSlot(index, updated);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Node node, Consumer<? super V> action) {
+        for (Object slot : node.slots) {
+            if (slot instanceof Leaf leaf) {
+                action.accept((V) leaf.value);
+            } else {
+                forEach((Node) slot, action);
+            }
+        }
+    }
+
+    private static int bit(long hash, int shift) {
+        return 1 << (int) ((hash >>> shift) & MASK);
+    }
+
+    private static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private record Leaf(long key, long hash, Object value) {
+    }
+
+    private static final class Node {
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        private Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private Node withSlot(int index, Object slot) {
+            Object[] copy = slots.clone();
+            copy[index] = slot;
+            return new Node(bitmap, copy);
+        }
+
+        // A node left with a single leaf collapses into it so the parent can inline the leaf.
+        private Object withoutSlot(int index, int bit) {
+            if (slots.length == 1) return null;
+            if (slots.length == 2 && slots[1 - index] instanceof Leaf remaining) return remaining;
+
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+            return new Node(bitmap & ~bit, copy);
+        }
+    }
+}
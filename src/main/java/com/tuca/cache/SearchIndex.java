@@ -0,0 +1,257 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Inverted n-gram index over the searchable text of a task (description, owner and id).
+ * <p>
+ * Every 1, 2 and 3 character gram points to a sorted posting list of task ids. Queries of up to three
+ * characters are answered straight from one posting list; longer ones intersect the trigram lists,
+ * walking the shortest one and confirming each candidate against the stored text.
+ * <p>
+ * Results put tasks where the query is a whole word first, then those where it starts a word, then the
+ * rest, newest first within each group. Lists are walked from the newest id down, so a search stops as
+ * soon as {@code limit} whole word matches are found.
+ */
+public class SearchIndex {
+
+    private static final int MAX_GRAM = 3;
+    private static final char FIELD_SEPARATOR = '\0';
+    private static final long[] EMPTY = new long[0];
+    private static final int WHOLE_WORD = 0;
+    private static final int WORD_START = 1;
+    private static final int INSIDE_WORD = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentLongMap<Postings> postingsByGram = new ConcurrentLongMap<>();
+    private final ConcurrentLongMap<String> textById = new ConcurrentLongMap<>();
+
+    public void index(Task task) {
+        String text = searchableText(task);
+
+        lock.writeLock().lock();
+        try {
+            String previous = textById.put(task.getId(), text);
+            if (text.equals(previous)) return;
+
+            LongHashSet grams = grams(text);
+            if (previous != null) {
+                grams(previous).forEach(gram -> {
+                    if (!grams.contains(gram)) removePosting(gram, task.getId());
+                });
+            }
+            grams.forEach(gram -> addPosting(gram, task.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void unindex(long taskID) {
+        lock.writeLock().lock();
+        try {
+            String previous = textById.remove(taskID);
+            if (previous != null) grams(previous).forEach(gram -> removePosting(gram, taskID));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] search(String query, int limit, LongPredicate accept) {
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || limit <= 0) return EMPTY;
+
+        lock.readLock().lock();
+        try {
+            return normalized.length() <= MAX_GRAM
+                    ? collect(normalized, limit, accept)
+                    : intersect(normalized, limit, accept);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] collect(String query, int limit, LongPredicate accept) {
+        Postings postings = postingsByGram.get(gram(query, 0, query.length()));
+        if (postings == null) return EMPTY;
+
+        Ranking ranking = new Ranking(limit);
+        for (int i = postings.size - 1; i >= 0 && !ranking.isFull(); i--) {
+            long taskID = postings.ids[i];
+            int rank = rank(textById.get(taskID), query);
+            if (rank >= 0 && accept.test(taskID)) ranking.add(taskID, rank);
+        }
+        return ranking.result();
+    }
+
+    private long[] intersect(String query, int limit, LongPredicate accept) {
+        int gramCount = query.length() - MAX_GRAM + 1;
+        Postings[] lists = new Postings[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            lists[i] = postingsByGram.get(gram(query, i, MAX_GRAM));
+            if (lists[i] == null) return EMPTY;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        Postings shortest = lists[0];
+        Ranking ranking = new Ranking(limit);
+        for (int i = shortest.size - 1; i >= 0 && !ranking.isFull(); i--) {
+            long taskID = shortest.ids[i];
+            if (!inAll(lists, taskID)) continue;
+
+            int rank = rank(textById.get(taskID), query);
+            if (rank >= 0 && accept.test(taskID)) ranking.add(taskID, rank);
+        }
+        return ranking.result();
+    }
+
+    // Best placement of the query in the text, -1 when it does not occur.
+    private static int rank(String text, String query) {
+        int best = -1;
+        for (int at = text.indexOf(query); at >= 0; at = text.indexOf(query, at + 1)) {
+            if (at > 0 && Character.isLetterOrDigit(text.charAt(at - 1))) {
+                if (best < 0) best = INSIDE_WORD;
+                continue;
+            }
+            int end = at + query.length();
+            if (end == text.length() || !Character.isLetterOrDigit(text.charAt(end))) return WHOLE_WORD;
+            best = WORD_START;
+        }
+        return best;
+    }
+
+    private boolean inAll(Postings[] lists, long taskID) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(taskID)) return false;
+        }
+        return true;
+    }
+
+    private void addPosting(long gram, long taskID) {
+        Postings postings = postingsByGram.get(gram);
+        if (postings == null) {
+            postings = new Postings();
+            postingsByGram.put(gram, postings);
+        }
+        postings.add(taskID);
+    }
+
+    private void removePosting(long gram, long taskID) {
+        Postings postings = postingsByGram.get(gram);
+        if (postings == null) return;
+
+        postings.remove(taskID);
+        if (postings.size == 0) postingsByGram.remove(gram);
+    }
+
+    private static String searchableText(Task task) {
+        String description = task.getDescription() == null ? "" : task.getDescription();
+        String ownerName = task.getOwnerName() == null ? "" : task.getOwnerName();
+        return (description + FIELD_SEPARATOR + ownerName + FIELD_SEPARATOR + task.getId()).toLowerCase(Locale.ROOT);
+    }
+
+    private static LongHashSet grams(String text) {
+        LongHashSet grams = new LongHashSet();
+        for (int start = 0; start < text.length(); start++) {
+            for (int length = 1; length <= MAX_GRAM && start + length <= text.length(); length++) {
+                if (text.charAt(start + length - 1) == FIELD_SEPARATOR) break;
+                grams.add(gram(text, start, length));
+            }
+        }
+        return grams;
+    }
+
+    private static long gram(String text, int start, int length) {
+        long gram = length;
+        for (int i = start; i < start + length; i++) {
+            gram = (gram << 16) | text.charAt(i);
+        }
+        return gram;
+    }
+
+    // Matches grouped by rank, each group in the order they were found and capped at the limit.
+    private static final class Ranking {
+
+        private final int limit;
+        private final long[][] groups = new long[INSIDE_WORD + 1][];
+        private final int[] sizes = new int[INSIDE_WORD + 1];
+
+        private Ranking(int limit) {
+            this.limit = limit;
+        }
+
+        private void add(long taskID, int rank) {
+            if (sizes[rank] == limit) return;
+
+            long[] group = groups[rank];
+            if (group == null) {
+                group = groups[rank] = new long[Math.min(limit, 16)];
+            } else if (sizes[rank] == group.length) {
+                group = groups[rank] = Arrays.copyOf(group, (int) Math.min(limit, group.length * 2L));
+            }
+            group[sizes[rank]++] = taskID;
+        }
+
+        // Nothing found later can outrank a full group of whole word matches.
+        private boolean isFull() {
+            return sizes[WHOLE_WORD] == limit;
+        }
+
+        private long[] result() {
+            int total = 0;
+            for (int size : sizes) total += size;
+
+            long[] result = new long[Math.min(limit, total)];
+            int found = 0;
+            for (int rank = 0; rank < groups.length && found < result.length; rank++) {
+                int count = Math.min(sizes[rank], result.length - found);
+                if (count > 0) System.arraycopy(groups[rank], 0, result, found, count);
+                found += count;
+            }
+            return result;
+        }
+    }
+
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long taskID) {
+            if (size > 0 && ids[size - 1] < taskID) {
+                append(taskID);
+                return;
+            }
+
+            int index = Arrays.binarySearch(ids, 0, size, taskID);
+            if (index >= 0) return;
+
+            index = -index - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size << 1);
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = taskID;
+            size++;
+        }
+
+        private void append(long taskID) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size << 1);
+            ids[size++] = taskID;
+        }
+
+        private void remove(long taskID) {
+            int index = Arrays.binarySearch(ids, 0, size, taskID);
+            if (index < 0) return;
+
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+
+        private boolean contains(long taskID) {
+            return Arrays.binarySearch(ids, 0, size, taskID) >= 0;
+        }
+    }
+}
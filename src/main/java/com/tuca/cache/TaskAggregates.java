@@ -0,0 +1,87 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard counters kept by deltas. {@link TaskCache} feeds every create, update and delete through
+ * {@link #apply(Task, Task)} while holding its write lock, so the totals always match a cache version
+ * and every read is a couple of atomic loads. A cache restored from a snapshot may lack evicted tasks, so
+ * its counters are then recounted from the store.
+ */
+@Component
+public class TaskAggregates {
+
+    public enum Group {
+        COMPLETE, PENDING, OVERDUE, OTHER
+    }
+
+    private final Counters global = new Counters();
+
+    public static Group groupOf(String status) {
+        return switch (TaskCache.statusKey(status)) {
+            case "COMPLETA" -> Group.COMPLETE;
+            case "PENDENTE", "INCOMPLETA" -> Group.PENDING;
+            case "ATRASADA" -> Group.OVERDUE;
+            default -> Group.OTHER;
+        };
+    }
+
+    public long count(Group group) {
+        return global.get(group);
+    }
+
+    public long total() {
+        return global.total();
+    }
+
+    // Starts over from stored rows per status.
+    void reset(Map<String, Long> countsByStatus) {
+        global.clear();
+        countsByStatus.forEach((status, count) -> global.add(groupOf(status), count));
+    }
+
+    void apply(Task previous, Task current) {
+        if (previous != null) add(previous, -1);
+        if (current != null) add(current, 1);
+    }
+
+    private void add(Task task, long delta) {
+        global.add(groupOf(task.getStatus()), delta);
+    }
+
+    private static final class Counters {
+
+        private final AtomicLong[] counts = new AtomicLong[Group.values().length];
+        private final AtomicLong total = new AtomicLong();
+
+        private Counters() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new AtomicLong();
+            }
+        }
+
+        private void add(Group group, long delta) {
+            counts[group.ordinal()].addAndGet(delta);
+            total.addAndGet(delta);
+        }
+
+        private void clear() {
+            for (AtomicLong count : counts) {
+                count.set(0);
+            }
+            total.set(0);
+        }
+
+        private long get(Group group) {
+            return counts[group.ordinal()].get();
+        }
+
+        private long total() {
+            return total.get();
+        }
+    }
+}
@@ -1,57 +1,366 @@
 package com.tuca.cache;
 
 import com.tuca.model.Task;
-import com.tuca.repository.TaskRepository;
-import lombok.Getter;
+import com.tuca.model.TaskField;
+import com.tuca.store.TaskStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
+/**
+ * Multi-version task cache. Writers are serialized and each one publishes a new {@link CacheVersion};
+ * readers grab the current version with a single volatile read and never block a writer.
+ * Cached {@link Task} instances are treated as immutable, callers change a {@link Task#copy()} and save it.
+ * <p>
+ * With {@code tasks.cache.max-entries} set, completed tasks beyond the limit are evicted and come back through
+ * {@link #getByID(long)}; until then {@link #getTasks()}, {@link #getByStatus(String)} and {@link #search} leave
+ * them out.
+ */
 @Service
 public class TaskCache {
 
-    @Getter
-    private final List<Task> tasks = new ArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile CacheVersion current = CacheVersion.EMPTY;
 
-    private final TaskRepository taskRepository;
+    private final SearchIndex searchIndex = new SearchIndex();
+
+    // Changed columns per task id since the last flush.
+    private LongIntMap dirty = new LongIntMap();
+
+    // Completed tasks in access order, the only entries eviction may drop.
+    private final LinkedHashMap<Long, Boolean> evictable = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final TaskStore taskStore;
+    private final TaskAggregates taskAggregates;
+    private final TaskJournal taskJournal;
+
+    // 0 is unbounded. Evicted tasks are only served by getByID, lists and searches see the cached ones alone.
+    @Value("${tasks.cache.max-entries:0}")
+    private int maxEntries;
 
     @Autowired
-    public TaskCache(TaskRepository taskRepository) {
-        this.taskRepository = taskRepository;
+    public TaskCache(TaskStore taskStore, TaskAggregates taskAggregates, TaskJournal taskJournal) {
+        this.taskStore = taskStore;
+        this.taskAggregates = taskAggregates;
+        this.taskJournal = taskJournal;
+    }
+
+    TaskCache(TaskStore taskStore, TaskAggregates taskAggregates, TaskJournal taskJournal, int maxEntries) {
+        this(taskStore, taskAggregates, taskJournal);
+        this.maxEntries = maxEntries;
+    }
+
+    public static String statusKey(String status) {
+        return status == null ? "" : status.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public CacheVersion snapshot() {
+        return current;
+    }
+
+    public List<Task> getTasks() {
+        return current.getTasks();
     }
+
+    public List<Task> getByStatus(String status) {
+        return current.getByStatus(status);
+    }
+
+    public int countByStatus(String status) {
+        return current.countByStatus(status);
+    }
+
+    public List<Task> search(String query, int limit, Predicate<Task> filter) {
+        CacheVersion version = current;
+        long[] ids = searchIndex.search(query, limit, taskID -> {
+            Task task = version.getByID(taskID);
+            return task != null && filter.test(task);
+        });
+
+        List<Task> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(version.getByID(id));
+        }
+        return result;
+    }
+
     public boolean contains(long taskID) {
-        return getByID(taskID) != null;
+        return current.getByID(taskID) != null;
     }
 
     public Task getByID(long taskID) {
-        for (Task task : tasks) {
-            if (task.getId() == taskID) {
-                return task;
-            }
+        Task task = current.getByID(taskID);
+        if (task != null) {
+            touch(task);
+            return task;
         }
-        return null;
+
+        Task stored = taskStore.findById(taskID).orElse(null);
+        if (stored == null) return null;
+
+        // A save may have cached a newer version while the row was read, that one wins.
+        writeLock.lock();
+        try {
+            task = current.getByID(taskID);
+            if (task != null) return task;
+
+            current = apply(current, stored, Origin.READ_THROUGH);
+        } finally {
+            writeLock.unlock();
+        }
+        evictIfNeeded();
+        return stored;
+    }
+
+    public Task peek(long taskID) {
+        return current.getByID(taskID);
     }
 
     public Task save(Task task) {
-        if (contains(task.getId())) {
-            update(task);
-            return taskRepository.save(task);
+        put(task, Origin.MUTATION);
+        evictIfNeeded();
+        return task;
+    }
+
+    public void update(Task task) {
+        save(task);
+    }
+
+    // Applies every change under one write lock and publishes them as a single version.
+    public void saveAll(Collection<Task> tasks) {
+        writeLock.lock();
+        try {
+            CacheVersion version = current;
+            for (Task task : tasks) {
+                version = apply(version, task, Origin.MUTATION);
+            }
+            current = version;
+        } finally {
+            writeLock.unlock();
+        }
+        evictIfNeeded();
+    }
+
+    // Saves only if the cached task is still the instance the caller read, so background writers never clobber a newer change.
+    public boolean replace(Task expected, Task updated) {
+        writeLock.lock();
+        try {
+            if (current.getByID(expected.getId()) != expected) return false;
+            put(updated, Origin.MUTATION);
+        } finally {
+            writeLock.unlock();
+        }
+        evictIfNeeded();
+        return true;
+    }
+
+    public void load(Task task) {
+        put(task, Origin.LOAD);
+        evictIfNeeded();
+    }
+
+    // Loads a page of rows under one write lock and publishes them as a single version.
+    public void loadAll(Collection<Task> tasks) {
+        writeLock.lock();
+        try {
+            CacheVersion version = current;
+            for (Task task : tasks) {
+                version = apply(version, task, Origin.LOAD);
+            }
+            current = version;
+        } finally {
+            writeLock.unlock();
+        }
+        evictIfNeeded();
+    }
+
+    // Re-applies a journaled change on top of the loaded state; unknown ids are only created from a full record.
+    // The journaled columns are marked dirty even when the loaded state already has them, since a snapshot may
+    // hold changes MySQL never got. A bounded cache evicts while it loads, so misses are read from the store.
+    public void replay(long taskID, int fields, Task values) {
+        Task stored = current.getByID(taskID) == null ? taskStore.findById(taskID).orElse(null) : null;
+
+        writeLock.lock();
+        try {
+            Task previous = current.getByID(taskID);
+            if (previous == null && stored != null) {
+                current = apply(current, stored, Origin.READ_THROUGH);
+                previous = stored;
+            }
+            if (previous == null && fields != TaskField.ALL) return;
+
+            Task task = previous == null ? new Task() : previous.copy();
+            task.setId(taskID);
+            for (TaskField field : TaskField.values()) {
+                if (field.in(fields)) field.set(task, field.valueOf(values));
+            }
+            current = apply(current, task, Origin.REPLAY);
+            markDirty(taskID, fields);
+        } finally {
+            writeLock.unlock();
+        }
+        evictIfNeeded();
+    }
+
+    // Recounts the aggregates from the whole store, so they cover tasks that were evicted before a snapshot and
+    // never restored. Only exact while every cached change has been flushed.
+    public void recount() {
+        Map<String, Long> counts = taskStore.countByStatus();
+        writeLock.lock();
+        try {
+            taskAggregates.reset(counts);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Drops tasks the store has deleted. The aggregates count evicted tasks too, so for those the deleted rows
+    // are taken off instead.
+    public void removeAll(Collection<Long> taskIDs, Collection<Task> deleted) {
+        removeAll(taskIDs, deleted, true);
+    }
+
+    public void replayDelete(long taskID) {
+        removeAll(List.of(taskID), List.of(), false);
+    }
+
+    private void removeAll(Collection<Long> taskIDs, Collection<Task> deleted, boolean journal) {
+        Map<Long, Task> rows = new HashMap<>();
+        for (Task row : deleted) {
+            rows.put(row.getId(), row);
+        }
+
+        writeLock.lock();
+        try {
+            CacheVersion version = current;
+            for (long taskID : taskIDs) {
+                Task previous = version.getByID(taskID);
+                if (previous == null) {
+                    Task row = rows.get(taskID);
+                    if (row != null) taskAggregates.apply(row, null);
+                    continue;
+                }
+
+                taskAggregates.apply(previous, null);
+                version = unlink(version, taskID);
+                if (journal) taskJournal.appendDelete(taskID);
+            }
+            current = version;
+        } finally {
+            writeLock.unlock();
+        }
+        synchronized (this) {
+            taskIDs.forEach(dirty::remove);
+        }
+    }
+
+    public synchronized void markDirty(long taskID, int fields) {
+        if (fields != 0) dirty.or(taskID, fields);
+    }
+
+    public synchronized int dirtyCount() {
+        return dirty.size();
+    }
+
+    public synchronized LongIntMap drainDirty() {
+        LongIntMap drained = dirty;
+        dirty = new LongIntMap();
+        return drained;
+    }
+
+    private void put(Task task, Origin origin) {
+        writeLock.lock();
+        try {
+            current = apply(current, task, origin);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private CacheVersion apply(CacheVersion version, Task task, Origin origin) {
+        Task previous = version.getByID(task.getId());
+        if (origin != Origin.READ_THROUGH) taskAggregates.apply(previous, task);
+        searchIndex.index(task);
+
+        synchronized (evictable) {
+            if (isCompleted(task)) {
+                evictable.put(task.getId(), Boolean.TRUE);
+            } else {
+                evictable.remove(task.getId());
+            }
+        }
+
+        if (origin == Origin.MUTATION) {
+            int fields = previous == null ? TaskField.ALL : TaskField.diff(previous, task);
+            // Marked dirty before it is journaled, so a flush that starts after the append also writes the change.
+            if (previous != null) markDirty(task.getId(), fields);
+            taskJournal.appendPut(task, fields);
+        }
+        return version.with(task);
+    }
+
+    private CacheVersion unlink(CacheVersion version, long taskID) {
+        searchIndex.unindex(taskID);
+        synchronized (evictable) {
+            evictable.remove(taskID);
+        }
+        return version.without(taskID);
+    }
+
+    private void touch(Task task) {
+        if (maxEntries <= 0 || !isCompleted(task)) return;
+
+        synchronized (evictable) {
+            evictable.get(task.getId());
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (maxEntries <= 0 || current.size() <= maxEntries) return;
+
+        writeLock.lock();
+        try {
+            int excess = current.size() - maxEntries;
+            List<Long> victims = new ArrayList<>(excess);
+            synchronized (evictable) {
+                Iterator<Long> iterator = evictable.keySet().iterator();
+                while (iterator.hasNext() && victims.size() < excess) {
+                    Long taskID = iterator.next();
+                    if (!isDirty(taskID)) victims.add(taskID);
+                }
+            }
+            CacheVersion version = current;
+            for (long taskID : victims) {
+                version = unlink(version, taskID);
+            }
+            current = version;
+        } finally {
+            writeLock.unlock();
         }
-        tasks.add(task);
-        return getByID(task.getId());
     }
 
-    private void update(Task task) {
-        tasks.set(tasks.indexOf(task), task);
+    private synchronized boolean isDirty(long taskID) {
+        return dirty.containsKey(taskID);
     }
 
-    public void remove(long taskID) {
-        tasks.remove(getByID(taskID));
+    private static boolean isCompleted(Task task) {
+        return statusKey(task.getStatus()).equals("COMPLETA");
     }
 
-    public void loadAll() {
-        taskRepository.findAll().forEach(this::save);
+    // Read-through entries were already counted when the table was loaded, so they skip the aggregates.
+    // Replayed changes are flushed like mutations, by their journaled columns, but are already in the journal.
+    private enum Origin {
+        MUTATION, LOAD, READ_THROUGH, REPLAY
     }
 }
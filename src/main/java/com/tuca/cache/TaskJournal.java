@@ -0,0 +1,375 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+import com.tuca.model.TaskField;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of cache mutations, the durability path between two write-behind flushes.
+ * <p>
+ * Each record carries only the columns that changed and is written to the active segment as soon as it is
+ * appended; a background thread forces the segment to disk every {@code tasks.journal.sync-interval-ms}, so
+ * one fsync covers every mutation of that window. The checkpoint file remembers the last record folded into
+ * MySQL by a flush and the last one captured by a snapshot; segments older than both are deleted. On startup
+ * the records past the flush checkpoint, or past the snapshot when it is older, are replayed, stopping at a
+ * torn record.
+ */
+@Component
+public class TaskJournal {
+
+    /**
+     * Receives the records past the checkpoint, in log order.
+     */
+    public interface Replayer {
+
+        void put(long taskID, int fields, Task values);
+
+        void delete(long taskID);
+    }
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Logger log = LoggerFactory.getLogger(TaskJournal.class);
+
+    @Value("${tasks.journal.directory:data/journal}")
+    private Path directory;
+
+    @Value("${tasks.journal.segment-bytes:16777216}")
+    private long segmentBytes;
+
+    @Value("${tasks.journal.sync-interval-ms:50}")
+    private long syncIntervalMs;
+
+    private FileChannel segment;
+    private long segmentSize;
+    private long lastLsn = -1;
+    private long flushedLsn;
+    private long snapshotLsn;
+    private boolean unsynced;
+    private ScheduledExecutorService syncer;
+
+    public TaskJournal() {
+    }
+
+    TaskJournal(Path directory, long segmentBytes, long syncIntervalMs) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncIntervalMs = syncIntervalMs;
+    }
+
+    public synchronized long lastLsn() {
+        ensureOpen();
+        return lastLsn;
+    }
+
+    public synchronized void appendPut(Task task, int fields) {
+        if (fields == 0) return;
+
+        int size = Byte.BYTES + Long.BYTES * 2 + Integer.BYTES;
+        for (TaskField field : TaskField.values()) {
+            if (field.in(fields)) size += fieldSize(field.valueOf(task));
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(size);
+        body.put(PUT).putLong(lastLsn() + 1).putLong(task.getId()).putInt(fields);
+        for (TaskField field : TaskField.values()) {
+            if (field.in(fields)) putField(body, field.valueOf(task));
+        }
+        write(body);
+    }
+
+    public synchronized void appendDelete(long taskID) {
+        ByteBuffer body = ByteBuffer.allocate(Byte.BYTES + Long.BYTES * 2);
+        body.put(DELETE).putLong(lastLsn() + 1).putLong(taskID);
+        write(body);
+    }
+
+    // Every record up to lsn is reflected in MySQL.
+    public synchronized void markFlushed(long lsn) {
+        if (lsn <= flushedLsn) return;
+        writeCheckpoint(lsn, snapshotLsn);
+    }
+
+    // Every record up to lsn is contained in the snapshot just written.
+    public synchronized void markSnapshot(long lsn) {
+        if (lsn <= snapshotLsn) return;
+        writeCheckpoint(flushedLsn, lsn);
+    }
+
+    // For a cache loaded from MySQL.
+    public synchronized int replay(Replayer replayer) {
+        return replayAfter(-1, replayer);
+    }
+
+    // For a cache restored from a snapshot taken at lsn. Records the snapshot already holds are replayed too when
+    // they never reached MySQL, so they get flushed again.
+    public synchronized int replayAfter(long lsn, Replayer replayer) {
+        if (segment != null) throw new IllegalStateException("The journal is already open for appends");
+
+        int replayed = scan(replayer, lsn);
+        if (replayed > 0) log.info("[Tasks] Replayed {} journal records", replayed);
+        return replayed;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (syncer != null) syncer.shutdownNow();
+        if (segment == null) return;
+
+        try {
+            sync();
+            segment.close();
+        } catch (IOException e) {
+            log.warn("[Tasks] Could not close the journal", e);
+        }
+        segment = null;
+    }
+
+    private void write(ByteBuffer body) {
+        body.flip();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + body.remaining() + Integer.BYTES);
+        record.putInt(body.remaining()).put(body).putInt((int) crc.getValue()).flip();
+        try {
+            if (segmentSize >= segmentBytes) roll();
+            while (record.hasRemaining()) {
+                segmentSize += segment.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the task journal", e);
+        }
+        lastLsn++;
+        unsynced = true;
+    }
+
+    private synchronized void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            log.error("[Tasks] Could not sync the journal", e);
+        }
+    }
+
+    private void sync() throws IOException {
+        if (segment == null || !unsynced) return;
+
+        segment.force(false);
+        unsynced = false;
+    }
+
+    private void ensureOpen() {
+        if (segment != null) return;
+
+        if (lastLsn < 0) scan(null, 0);
+        try {
+            roll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the task journal", e);
+        }
+
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+        }
+        Files.createDirectories(directory);
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, lastLsn + 1, SUFFIX));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segmentSize = 0;
+        unsynced = false;
+    }
+
+    private void writeCheckpoint(long flushed, long snapshot) {
+        try {
+            sync();
+            Files.createDirectories(directory);
+            Path temp = directory.resolve(CHECKPOINT + ".tmp");
+            Files.write(temp, ByteBuffer.allocate(Long.BYTES * 2).putLong(flushed).putLong(snapshot).array());
+            Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            flushedLsn = flushed;
+            snapshotLsn = snapshot;
+
+            deleteFolded(Math.min(flushed, snapshot));
+        } catch (IOException e) {
+            log.warn("[Tasks] Could not checkpoint the journal", e);
+        }
+    }
+
+    // A segment that cannot be deleted yet is tried again at the next checkpoint.
+    private void deleteFolded(long folded) {
+        List<Path> segments = listSegments();
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstLsnOf(segments.get(i + 1)) > folded + 1) break;
+
+            try {
+                Files.deleteIfExists(segments.get(i));
+            } catch (IOException e) {
+                log.debug("[Tasks] Could not delete journal segment {} yet", segments.get(i), e);
+            }
+        }
+    }
+
+    // Reads every intact record, handing the ones past the flush checkpoint, or past afterLsn when that is older,
+    // to the replayer, and leaves lastLsn at the tail.
+    private int scan(Replayer replayer, long afterLsn) {
+        readCheckpoint();
+        long replayFrom = afterLsn < 0 ? flushedLsn : Math.min(afterLsn, flushedLsn);
+        lastLsn = Math.max(flushedLsn, snapshotLsn);
+
+        List<Path> segments = listSegments();
+        if (replayer != null && !segments.isEmpty() && firstLsnOf(segments.get(0)) > replayFrom + 1) {
+            log.warn("[Tasks] Journal starts at {} but replay needs {}, changes in between are lost", firstLsnOf(segments.get(0)), replayFrom + 1);
+        }
+
+        int replayed = 0;
+        for (Path file : segments) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                // Read onto the heap rather than mapped, Windows refuses to delete a file while a mapping is alive.
+                ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+                while (data.hasRemaining()) {
+                    if (channel.read(data) < 0) break;
+                }
+                data.flip();
+                while (data.remaining() >= Integer.BYTES) {
+                    int length = data.getInt();
+                    if (length <= 0 || data.remaining() < length + Integer.BYTES) break;
+
+                    ByteBuffer body = data.slice(data.position(), length);
+                    data.position(data.position() + length);
+                    CRC32 crc = new CRC32();
+                    crc.update(body.duplicate());
+                    if ((int) crc.getValue() != data.getInt()) {
+                        log.warn("[Tasks] Journal segment {} has a torn record, ignoring the rest of it", file);
+                        break;
+                    }
+
+                    byte type = body.get();
+                    long lsn = body.getLong();
+                    long taskID = body.getLong();
+                    lastLsn = Math.max(lastLsn, lsn);
+                    if (lsn <= replayFrom || replayer == null) continue;
+
+                    if (type == DELETE) {
+                        replayer.delete(taskID);
+                    } else {
+                        int fields = body.getInt();
+                        Task values = new Task();
+                        values.setId(taskID);
+                        for (TaskField field : TaskField.values()) {
+                            if (field.in(fields)) readField(body, field, values);
+                        }
+                        replayer.put(taskID, fields, values);
+                    }
+                    replayed++;
+                }
+            } catch (IOException e) {
+                log.warn("[Tasks] Could not read journal segment {}", file, e);
+            }
+        }
+        return replayed;
+    }
+
+    private void readCheckpoint() {
+        Path file = directory.resolve(CHECKPOINT);
+        try {
+            if (!Files.exists(file)) return;
+
+            ByteBuffer checkpoint = ByteBuffer.wrap(Files.readAllBytes(file));
+            flushedLsn = checkpoint.getLong();
+            snapshotLsn = checkpoint.getLong();
+        } catch (IOException | RuntimeException e) {
+            log.warn("[Tasks] Could not read the journal checkpoint, replaying everything", e);
+            flushedLsn = 0;
+            snapshotLsn = 0;
+        }
+    }
+
+    private List<Path> listSegments() {
+        if (!Files.isDirectory(directory)) return List.of();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> firstLsnOf(file) >= 0)
+                    .sorted(Comparator.comparingLong((Path file) -> firstLsnOf(file)))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("[Tasks] Could not list journal segments in {}", directory, e);
+            return List.of();
+        }
+    }
+
+    private static long firstLsnOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) return -1;
+
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int fieldSize(Object value) {
+        if (value instanceof Long) return Long.BYTES;
+        return Integer.BYTES + (value == null ? 0 : ((String) value).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void putField(ByteBuffer buffer, Object value) {
+        if (value instanceof Long number) {
+            buffer.putLong(number);
+        } else if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static void readField(ByteBuffer buffer, TaskField field, Task values) {
+        if (field == TaskField.START_DATE || field == TaskField.EXPIRY_DATE) {
+            field.set(values, buffer.getLong());
+            return;
+        }
+
+        int length = buffer.getInt();
+        if (length < 0) return;
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        field.set(values, new String(bytes, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,354 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the cached tasks plus the Kafka offsets they are consistent with.
+ * <p>
+ * Every snapshot goes to a new {@code tasks-<generation>.snapshot} file written through memory mapped
+ * windows and sealed with a CRC32 trailer; older generations are deleted afterwards. Restores map the
+ * newest file whose checksum verifies and stream its tasks straight into the cache.
+ */
+@Component
+public class TaskSnapshot {
+
+    private static final int MAGIC = 0x54534E50;
+    private static final short FORMAT_VERSION = 2;
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final String PREFIX = "tasks-";
+    private static final String SUFFIX = ".snapshot";
+
+    private final Logger log = LoggerFactory.getLogger(TaskSnapshot.class);
+
+    private final Map<TopicPartition, Long> restoredOffsets = new ConcurrentHashMap<>();
+
+    @Value("${tasks.snapshot.directory:data}")
+    private Path directory;
+
+    private long generation;
+    private long restoredLsn;
+
+    public TaskSnapshot() {
+    }
+
+    TaskSnapshot(Path directory) {
+        this.directory = directory;
+    }
+
+    public Map<TopicPartition, Long> getRestoredOffsets() {
+        return restoredOffsets;
+    }
+
+    // Last journal record contained in the restored snapshot.
+    public long getRestoredLsn() {
+        return restoredLsn;
+    }
+
+    public synchronized void write(Collection<Task> tasks, Map<TopicPartition, Long> offsets, long journalLsn) throws IOException {
+        Files.createDirectories(directory);
+        long nextGeneration = Math.max(generation, latestGeneration().orElse(0L)) + 1;
+        Path target = directory.resolve(PREFIX + nextGeneration + SUFFIX);
+
+        long size = headerSize(offsets);
+        for (Task task : tasks) {
+            size += recordSize(task);
+        }
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedWriter writer = new MappedWriter(channel, size);
+            writer.putInt(MAGIC);
+            writer.putShort(FORMAT_VERSION);
+            writer.putLong(nextGeneration);
+            writer.putLong(System.currentTimeMillis());
+            writer.putLong(journalLsn);
+
+            writer.putInt(offsets.size());
+            for (Map.Entry<TopicPartition, Long> offset : offsets.entrySet()) {
+                writer.putString(offset.getKey().topic());
+                writer.putInt(offset.getKey().partition());
+                writer.putLong(offset.getValue());
+            }
+
+            writer.putInt(tasks.size());
+            for (Task task : tasks) {
+                writer.putLong(task.getId());
+                writer.putLong(task.getStartDate());
+                writer.putLong(task.getExpiryDate());
+                writer.putString(task.getOwnerName());
+                writer.putString(task.getDescription());
+                writer.putString(task.getStatus());
+            }
+            writer.seal();
+        }
+
+        generation = nextGeneration;
+        deleteOlderThan(nextGeneration);
+        log.info("[Tasks] Snapshot {} written with {} tasks ({} bytes)", nextGeneration, tasks.size(), size);
+    }
+
+    public boolean restore(Consumer<Task> sink) {
+        List<Path> candidates = listSnapshots();
+        for (Path candidate : candidates) {
+            try {
+                if (!verify(candidate)) {
+                    log.warn("[Tasks] Snapshot {} is corrupt, skipping it", candidate);
+                    continue;
+                }
+                int restored = read(candidate, sink);
+                log.info("[Tasks] Restored {} tasks from snapshot {}", restored, candidate);
+                return true;
+            } catch (IOException e) {
+                log.warn("[Tasks] Could not read snapshot {}", candidate, e);
+            }
+        }
+        return false;
+    }
+
+    private int read(Path file, Consumer<Task> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedReader reader = new MappedReader(channel, channel.size() - Long.BYTES);
+            if (reader.getInt() != MAGIC) throw new IOException("Unsupported snapshot format");
+            short version = reader.getShort();
+            if (version < 1 || version > FORMAT_VERSION) throw new IOException("Unsupported snapshot version " + version);
+            generation = Math.max(generation, reader.getLong());
+            reader.getLong();
+            long journalLsn = version >= 2 ? reader.getLong() : 0;
+
+            Map<TopicPartition, Long> offsets = new HashMap<>();
+            int offsetCount = reader.getInt();
+            for (int i = 0; i < offsetCount; i++) {
+                TopicPartition partition = new TopicPartition(reader.getString(), reader.getInt());
+                offsets.put(partition, reader.getLong());
+            }
+
+            int taskCount = reader.getInt();
+            for (int i = 0; i < taskCount; i++) {
+                Task task = new Task();
+                task.setId(reader.getLong());
+                task.setStartDate(reader.getLong());
+                task.setExpiryDate(reader.getLong());
+                task.setOwnerName(reader.getString());
+                task.setDescription(reader.getString());
+                task.setStatus(reader.getString());
+                sink.accept(task);
+            }
+
+            restoredOffsets.putAll(offsets);
+            restoredLsn = journalLsn;
+            return taskCount;
+        }
+    }
+
+    private boolean verify(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long payloadSize = channel.size() - Long.BYTES;
+            if (payloadSize <= 0) return false;
+
+            CRC32 crc = new CRC32();
+            for (long position = 0; position < payloadSize; position += WINDOW_SIZE) {
+                long length = Math.min(WINDOW_SIZE, payloadSize - position);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+            long expected = channel.map(FileChannel.MapMode.READ_ONLY, payloadSize, Long.BYTES).getLong();
+            return crc.getValue() == expected;
+        }
+    }
+
+    private List<Path> listSnapshots() {
+        if (!Files.isDirectory(directory)) return List.of();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> generationOf(file) > 0)
+                    .sorted(Comparator.comparingLong((Path file) -> generationOf(file)).reversed())
+                    .toList();
+        } catch (IOException e) {
+            log.warn("[Tasks] Could not list snapshots in {}", directory, e);
+            return List.of();
+        }
+    }
+
+    private Optional<Long> latestGeneration() {
+        return listSnapshots().stream().findFirst().map(TaskSnapshot::generationOf);
+    }
+
+    // Old generations may still be mapped by a previous restore, so failures are retried on the next write.
+    private void deleteOlderThan(long keep) {
+        for (Path file : listSnapshots()) {
+            if (generationOf(file) >= keep) continue;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("[Tasks] Could not delete old snapshot {} yet", file, e);
+            }
+        }
+    }
+
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) return -1;
+
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long headerSize(Map<TopicPartition, Long> offsets) {
+        long size = Integer.BYTES + Short.BYTES + Long.BYTES * 3 + Integer.BYTES * 2L;
+        for (TopicPartition partition : offsets.keySet()) {
+            size += stringSize(partition.topic()) + Integer.BYTES + Long.BYTES;
+        }
+        return size + Long.BYTES;
+    }
+
+    private static int recordSize(Task task) {
+        return Long.BYTES * 3 + stringSize(task.getOwnerName()) + stringSize(task.getDescription()) + stringSize(task.getStatus());
+    }
+
+    // Sized from the same encoding putString writes, which turns unpaired surrogates into '?'.
+    private static int stringSize(String value) {
+        return Integer.BYTES + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static final class MappedWriter {
+
+        private final FileChannel channel;
+        private final long size;
+        private final CRC32 crc = new CRC32();
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        private MappedWriter(FileChannel channel, long size) throws IOException {
+            this.channel = channel;
+            this.size = size;
+            remap(0, 0);
+        }
+
+        private void reserve(int bytes) throws IOException {
+            if (window.remaining() < bytes) remap(windowStart + window.position(), bytes);
+        }
+
+        private void putInt(int value) throws IOException {
+            reserve(Integer.BYTES);
+            window.putInt(value);
+        }
+
+        private void putShort(short value) throws IOException {
+            reserve(Short.BYTES);
+            window.putShort(value);
+        }
+
+        private void putLong(long value) throws IOException {
+            reserve(Long.BYTES);
+            window.putLong(value);
+        }
+
+        private void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            reserve(Integer.BYTES + bytes.length);
+            window.putInt(bytes.length);
+            window.put(bytes);
+        }
+
+        private void seal() throws IOException {
+            reserve(Long.BYTES);
+            checksumWindow();
+            window.putLong(crc.getValue());
+            window.force();
+        }
+
+        private void remap(long position, int required) throws IOException {
+            if (window != null) {
+                checksumWindow();
+                window.force();
+            }
+            long length = Math.min(Math.max(WINDOW_SIZE, required), size - position);
+            window = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+            windowStart = position;
+        }
+
+        private void checksumWindow() {
+            crc.update(window.duplicate().flip());
+        }
+    }
+
+    private static final class MappedReader {
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        private MappedReader(FileChannel channel, long size) throws IOException {
+            this.channel = channel;
+            this.size = size;
+            remap(0, 0);
+        }
+
+        private void require(int bytes) throws IOException {
+            if (window.remaining() >= bytes) return;
+
+            long position = windowStart + window.position();
+            if (size - position < bytes) throw new IOException("Truncated snapshot");
+            remap(position, bytes);
+        }
+
+        private int getInt() throws IOException {
+            require(Integer.BYTES);
+            return window.getInt();
+        }
+
+        private short getShort() throws IOException {
+            require(Short.BYTES);
+            return window.getShort();
+        }
+
+        private long getLong() throws IOException {
+            require(Long.BYTES);
+            return window.getLong();
+        }
+
+        private String getString() throws IOException {
+            int length = getInt();
+            if (length < 0) return null;
+
+            require(length);
+            byte[] bytes = new byte[length];
+            window.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void remap(long position, int required) throws IOException {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(WINDOW_SIZE, required), size - position));
+            windowStart = position;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+
+/**
+ * Persistent multimap from an attribute value to the tasks holding it, built on {@link LongTrie}.
+ * Buckets are keyed by the string hash and chained for the rare hash collision.
+ */
+final class TrieIndex {
+
+    static final TrieIndex EMPTY = new TrieIndex(LongTrie.empty());
+
+    private final LongTrie<Bucket> buckets;
+
+    private TrieIndex(LongTrie<Bucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    LongTrie<Task> get(String key) {
+        for (Bucket bucket = buckets.get(key.hashCode()); bucket != null; bucket = bucket.next) {
+            if (bucket.key.equals(key)) return bucket.tasks;
+        }
+        return LongTrie.empty();
+    }
+
+    TrieIndex add(String key, Task task) {
+        return with(key, get(key).put(task.getId(), task));
+    }
+
+    TrieIndex remove(String key, long taskID) {
+        LongTrie<Task> tasks = get(key);
+        LongTrie<Task> updated = tasks.remove(taskID);
+        return updated == tasks ? this : with(key, updated);
+    }
+
+    private TrieIndex with(String key, LongTrie<Task> tasks) {
+        Bucket chain = without(buckets.get(key.hashCode()), key);
+        if (!tasks.isEmpty()) chain = new Bucket(key, tasks, chain);
+        return new TrieIndex(chain == null ? buckets.remove(key.hashCode()) : buckets.put(key.hashCode(), chain));
+    }
+
+    private static Bucket without(Bucket chain, String key) {
+        if (chain == null) return null;
+        if (chain.key.equals(key)) return chain.next;
+
+        Bucket rest = without(chain.next, key);
+        return rest == chain.next ? chain : new Bucket(chain.key, chain.tasks, rest);
+    }
+
+    private record Bucket(String key, LongTrie<Task> tasks, Bucket next) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.tuca.event;
+
+/**
+ * Kinds of {@link TaskEvent}. The code is what goes on the wire, so it must never change for an existing type.
+ */
+public enum EventType {
+
+    UPDATE_DESCRIPTION(1),
+    UPDATE_STATUS(2),
+    CREATE_TASK(3),
+    DELETE_TASK(4),
+    BULK_UPDATE_STATUS(5),
+    BULK_DELETE(6),
+    CLOSING_PROGRAM(7);
+
+    private static final EventType[] BY_CODE = new EventType[8];
+
+    static {
+        for (EventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+
+    EventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public boolean isBulk() {
+        return this == BULK_UPDATE_STATUS || this == BULK_DELETE;
+    }
+
+    // Null for codes written by a newer version.
+    public static EventType ofCode(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
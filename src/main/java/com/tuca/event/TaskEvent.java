@@ -0,0 +1,23 @@
+package com.tuca.event;
+
+/**
+ * Event published on {@code swing-topic}: a change to one task, a change to a set of tasks, or a signal that
+ * concerns no task in particular.
+ * <p>
+ * Changes are stamped with the id of the producer that sent them and a sequence that grows with every event
+ * it sends, so a consumer can tell a redelivered or stale change from a new one. A zero producer id means
+ * unstamped, as in events written before the stamp existed.
+ */
+public sealed interface TaskEvent {
+
+    EventType type();
+
+    record TaskChange(EventType type, long taskID, String newValue, long producerId, long sequence) implements TaskEvent {
+    }
+
+    record BulkChange(EventType type, long[] taskIDs, String newValue, long producerId, long sequence) implements TaskEvent {
+    }
+
+    record Signal(EventType type) implements TaskEvent {
+    }
+}
@@ -0,0 +1,114 @@
+package com.tuca.event;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads what {@link TaskEventSerializer} writes straight from the record buffer. A payload starting with
+ * {@code '{'} is taken as JSON, which covers the debug format and events published before the binary one.
+ * Anything it cannot read comes back as null so the consumer can skip it instead of stalling the partition.
+ */
+public class TaskEventDeserializer implements Deserializer<TaskEvent> {
+
+    private static final byte JSON_START = '{';
+    private static final byte UNSTAMPED_VERSION = 1;
+
+    private final Logger log = LoggerFactory.getLogger(TaskEventDeserializer.class);
+
+    @Override
+    public TaskEvent deserialize(String topic, byte[] data) {
+        return data == null ? null : deserialize(topic, null, ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public TaskEvent deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data == null || !data.hasRemaining()) return null;
+
+        ByteBuffer buffer = data.duplicate();
+        try {
+            byte version = buffer.get(buffer.position());
+            if (version == JSON_START) return fromJson(buffer);
+            if (version != TaskEventSerializer.VERSION && version != UNSTAMPED_VERSION) {
+                log.warn("[Queue] Skipping event in unknown format version {}", version);
+                return null;
+            }
+
+            buffer.get();
+            EventType type = EventType.ofCode(buffer.get());
+            if (type == null) {
+                log.warn("[Queue] Skipping event of unknown type");
+                return null;
+            }
+
+            if (type == EventType.CLOSING_PROGRAM) return new TaskEvent.Signal(type);
+
+            boolean stamped = version != UNSTAMPED_VERSION;
+            long producerId = stamped ? buffer.getLong() : 0;
+            long sequence = stamped ? buffer.getLong() : 0;
+            if (type.isBulk()) {
+                int count = buffer.getInt();
+                if (count < 0 || count > buffer.remaining() / Long.BYTES) throw new IllegalArgumentException("Bad task count " + count);
+
+                long[] taskIDs = new long[count];
+                for (int i = 0; i < taskIDs.length; i++) {
+                    taskIDs[i] = buffer.getLong();
+                }
+                return new TaskEvent.BulkChange(type, taskIDs, getString(buffer), producerId, sequence);
+            }
+            return new TaskEvent.TaskChange(type, buffer.getLong(), getString(buffer), producerId, sequence);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            log.warn("[Queue] Skipping malformed event", e);
+            return null;
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+
+        if (length > buffer.remaining()) throw new BufferUnderflowException();
+        if (!buffer.hasArray()) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private TaskEvent fromJson(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try {
+            JSONObject json = new JSONObject(new String(bytes, StandardCharsets.UTF_8));
+            EventType type = EventType.valueOf(json.optString("event").toUpperCase());
+            String newValue = json.optString("newValue", null);
+            long producerId = json.optLong("producerId");
+            long sequence = json.optLong("sequence");
+
+            if (json.has("taskIDs")) {
+                JSONArray ids = json.getJSONArray("taskIDs");
+                long[] taskIDs = new long[ids.length()];
+                for (int i = 0; i < taskIDs.length; i++) {
+                    taskIDs[i] = ids.getLong(i);
+                }
+                return new TaskEvent.BulkChange(type, taskIDs, newValue, producerId, sequence);
+            }
+            if (json.has("taskID")) return new TaskEvent.TaskChange(type, json.getLong("taskID"), newValue, producerId, sequence);
+            return new TaskEvent.Signal(type);
+        } catch (RuntimeException e) {
+            log.warn("[Queue] Skipping malformed JSON event", e);
+            return null;
+        }
+    }
+}
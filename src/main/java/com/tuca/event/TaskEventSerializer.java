@@ -0,0 +1,105 @@
+package com.tuca.event;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a {@link TaskEvent} as {@code [version][type code]} followed, for changes, by the producer id and
+ * sequence and then the task id and new value, or the id list and new value of a bulk change. A signal ends
+ * after the type code. Strings are a length, -1 for null, and UTF-8 bytes.
+ * With {@code json} set it writes the older JSON text instead, easier to read off the topic while debugging;
+ * {@link TaskEventDeserializer} accepts both.
+ */
+public class TaskEventSerializer implements Serializer<TaskEvent> {
+
+    // 1 had no producer stamp.
+    public static final byte VERSION = 2;
+
+    private final boolean json;
+
+    public TaskEventSerializer() {
+        this(false);
+    }
+
+    public TaskEventSerializer(boolean json) {
+        this.json = json;
+    }
+
+    @Override
+    public byte[] serialize(String topic, TaskEvent event) {
+        if (event == null) return null;
+        if (json) return toJson(event).toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] newValue = switch (event) {
+            case TaskEvent.TaskChange change -> bytes(change.newValue());
+            case TaskEvent.BulkChange bulk -> bytes(bulk.newValue());
+            case TaskEvent.Signal signal -> null;
+        };
+
+        int size = Byte.BYTES * 2 + switch (event) {
+            case TaskEvent.TaskChange change -> Long.BYTES * 3 + stringSize(newValue);
+            case TaskEvent.BulkChange bulk -> Long.BYTES * 2 + Integer.BYTES + Long.BYTES * bulk.taskIDs().length + stringSize(newValue);
+            case TaskEvent.Signal signal -> 0;
+        };
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).put(VERSION).put(event.type().getCode());
+        switch (event) {
+            case TaskEvent.TaskChange change -> {
+                buffer.putLong(change.producerId()).putLong(change.sequence()).putLong(change.taskID());
+                putString(buffer, newValue);
+            }
+            case TaskEvent.BulkChange bulk -> {
+                buffer.putLong(bulk.producerId()).putLong(bulk.sequence()).putInt(bulk.taskIDs().length);
+                for (long taskID : bulk.taskIDs()) {
+                    buffer.putLong(taskID);
+                }
+                putString(buffer, newValue);
+            }
+            case TaskEvent.Signal signal -> {
+            }
+        }
+        return buffer.array();
+    }
+
+    static JSONObject toJson(TaskEvent event) {
+        JSONObject json = new JSONObject();
+        json.put("event", event.type().name());
+        switch (event) {
+            case TaskEvent.TaskChange change -> {
+                json.put("taskID", change.taskID());
+                json.putOpt("newValue", change.newValue());
+                json.put("producerId", change.producerId());
+                json.put("sequence", change.sequence());
+            }
+            case TaskEvent.BulkChange bulk -> {
+                json.put("taskIDs", new JSONArray(bulk.taskIDs()));
+                json.putOpt("newValue", bulk.newValue());
+                json.put("producerId", bulk.producerId());
+                json.put("sequence", bulk.sequence());
+            }
+            case TaskEvent.Signal signal -> {
+            }
+        }
+        return json;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length).put(value);
+    }
+}
@@ -0,0 +1,4 @@
+package com.tuca.model;
+
+public record StatusCount(String status, long count) {
+}
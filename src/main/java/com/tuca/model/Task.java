@@ -4,14 +4,24 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Data;
 
 @Data
 @Entity
+@Table(indexes = @Index(name = "idx_task_status_expiry", columnList = "status, expiry_date, id"))
 public class Task {
 
+    public static final String ID_TABLE = "task_id";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Ids come from a pooled table allocator so inserts can be batched; TaskIdSeeder keeps it ahead of existing rows.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "task_id")
+    @TableGenerator(name = "task_id", table = ID_TABLE, pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "task", allocationSize = ID_ALLOCATION_SIZE)
     private long id;
     private String ownerName;
     private String description;
@@ -30,4 +40,15 @@ public class Task {
     public Task() {
 
     }
+
+    public Task copy() {
+        Task copy = new Task();
+        copy.id = id;
+        copy.ownerName = ownerName;
+        copy.description = description;
+        copy.startDate = startDate;
+        copy.expiryDate = expiryDate;
+        copy.status = status;
+        return copy;
+    }
 }
@@ -0,0 +1,57 @@
+package com.tuca.model;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Persistent columns of a {@link Task} that can change after creation, each one a bit in a change mask.
+ */
+public enum TaskField {
+
+    OWNER_NAME("owner_name", Task::getOwnerName, (task, value) -> task.setOwnerName((String) value)),
+    DESCRIPTION("description", Task::getDescription, (task, value) -> task.setDescription((String) value)),
+    START_DATE("start_date", Task::getStartDate, (task, value) -> task.setStartDate((Long) value)),
+    EXPIRY_DATE("expiry_date", Task::getExpiryDate, (task, value) -> task.setExpiryDate((Long) value)),
+    STATUS("status", Task::getStatus, (task, value) -> task.setStatus((String) value));
+
+    public static final int ALL = (1 << values().length) - 1;
+
+    private final String column;
+    private final Function<Task, Object> accessor;
+    private final BiConsumer<Task, Object> mutator;
+
+    TaskField(String column, Function<Task, Object> accessor, BiConsumer<Task, Object> mutator) {
+        this.column = column;
+        this.accessor = accessor;
+        this.mutator = mutator;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public Object valueOf(Task task) {
+        return accessor.apply(task);
+    }
+
+    public void set(Task task, Object value) {
+        mutator.accept(task, value);
+    }
+
+    public boolean in(int mask) {
+        return (mask & bit()) != 0;
+    }
+
+    public static int diff(Task previous, Task current) {
+        int mask = 0;
+        for (TaskField field : values()) {
+            if (!Objects.equals(field.valueOf(previous), field.valueOf(current))) mask |= field.bit();
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,54 @@
+package com.tuca.repository;
+
+import com.tuca.model.Task;
+import com.tuca.model.TaskField;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+@Profile("!embedded")
+public class TaskBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // One statement per combination of changed columns, at most 2^5 of them.
+    private final Map<Integer, String> updateSqlByFields = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TaskBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void updateFields(List<Task> tasks, int fields, int batchSize) {
+        List<TaskField> columns = new ArrayList<>();
+        for (TaskField field : TaskField.values()) {
+            if (field.in(fields)) columns.add(field);
+        }
+        if (columns.isEmpty() || tasks.isEmpty()) return;
+
+        String sql = updateSqlByFields.computeIfAbsent(fields, mask -> updateSql(columns));
+        jdbcTemplate.batchUpdate(sql, tasks, batchSize, (statement, task) -> {
+            int index = 1;
+            for (TaskField column : columns) {
+                statement.setObject(index++, column.valueOf(task));
+            }
+            statement.setLong(index, task.getId());
+        });
+    }
+
+    private static String updateSql(List<TaskField> columns) {
+        StringJoiner assignments = new StringJoiner(", ");
+        for (TaskField column : columns) {
+            assignments.add(column.getColumn() + " = ?");
+        }
+        return "UPDATE task SET " + assignments + " WHERE id = ?";
+    }
+}
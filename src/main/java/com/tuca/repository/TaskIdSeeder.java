@@ -0,0 +1,45 @@
+package com.tuca.repository;
+
+import com.tuca.model.Task;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the task id allocator past every id already in the table. Rows written while ids came from
+ * AUTO_INCREMENT keep their ids and the first pooled block starts above them.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Profile("!embedded")
+public class TaskIdSeeder {
+
+    private static final String SEED_SQL = "INSERT IGNORE INTO " + Task.ID_TABLE + " (name, next_val) VALUES ('task', 1)";
+
+    // Two blocks of headroom covers how the pooled optimizer reads the stored value as the top of its first block.
+    private static final String RAISE_SQL = "UPDATE " + Task.ID_TABLE + " SET next_val = GREATEST(next_val, "
+            + "(SELECT COALESCE(MAX(id), 0) FROM task) + " + (2 * Task.ID_ALLOCATION_SIZE) + ") WHERE name = 'task'";
+
+    private static final String NEXT_SQL = "SELECT next_val FROM " + Task.ID_TABLE + " WHERE name = 'task'";
+
+    private final Logger log = LoggerFactory.getLogger(TaskIdSeeder.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TaskIdSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void seed() {
+        jdbcTemplate.update(SEED_SQL);
+        jdbcTemplate.update(RAISE_SQL);
+        log.info("[Tasks] Task id allocator is at {}", jdbcTemplate.queryForObject(NEXT_SQL, Long.class));
+    }
+}
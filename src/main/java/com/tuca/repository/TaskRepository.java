@@ -1,7 +1,14 @@
 package com.tuca.repository;
 
 import com.tuca.model.Task;
+import com.tuca.model.StatusCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +20,17 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     Optional<Task> findById(long id);
 
     List<Task> findAll();
+
+    @Query("select min(t.id) from Task t")
+    Long findMinId();
+
+    @Query("select max(t.id) from Task t")
+    Long findMaxId();
+
+    @Query("select t from Task t where t.id > :afterId and t.id <= :upperId order by t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    List<Task> findRange(@Param("afterId") long afterId, @Param("upperId") long upperId, Limit limit);
+
+    @Query("select new com.tuca.model.StatusCount(t.status, count(t)) from Task t group by t.status")
+    List<StatusCount> countGroupedByStatus();
 }
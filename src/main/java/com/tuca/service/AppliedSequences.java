@@ -0,0 +1,63 @@
+package com.tuca.service;
+
+import com.tuca.cache.LongLongMap;
+import com.tuca.event.EventType;
+import com.tuca.event.TaskEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Highest event sequence applied per task, one table per producer. A change is accepted only while its sequence
+ * is above the task's mark, so redelivered events and stale ones, retries included, are dropped. Unstamped events,
+ * producer id 0, are always accepted. A delete leaves its sequence behind as a tombstone, so a late update of the
+ * deleted task is dropped rather than failing; tombstones go with their producer's table once it is aged out.
+ */
+final class AppliedSequences {
+
+    // Producers restart with a new id, only the most recent ones can still have events in flight.
+    private static final int MAX_PRODUCERS = 8;
+
+    private final Map<Long, LongLongMap> byProducer = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, LongLongMap> eldest) {
+            return size() > MAX_PRODUCERS;
+        }
+    };
+
+    // A retried delete still runs after newer changes of its task, deleting twice does no harm.
+    synchronized boolean accept(TaskEvent.TaskChange change, boolean retry) {
+        if (retry && change.type() == EventType.DELETE_TASK) return true;
+        return accept(change.producerId(), change.taskID(), change.sequence());
+    }
+
+    // The tasks of a bulk event that accept it.
+    synchronized List<Long> accept(TaskEvent.BulkChange bulk, boolean retry) {
+        boolean all = retry && bulk.type() == EventType.BULK_DELETE;
+        List<Long> accepted = new ArrayList<>(bulk.taskIDs().length);
+        for (long taskID : bulk.taskIDs()) {
+            if (all || accept(bulk.producerId(), taskID, bulk.sequence())) accepted.add(taskID);
+        }
+        return accepted;
+    }
+
+    // Nothing is recorded until the event is applied, so a failed one can come back from the retry topic.
+    synchronized void applied(long producerId, Collection<Long> taskIDs, long sequence) {
+        if (producerId == 0) return;
+
+        LongLongMap sequences = byProducer.computeIfAbsent(producerId, id -> new LongLongMap());
+        for (long taskID : taskIDs) {
+            sequences.raise(taskID, sequence);
+        }
+    }
+
+    private boolean accept(long producerId, long taskID, long sequence) {
+        if (producerId == 0) return true;
+
+        LongLongMap sequences = byProducer.get(producerId);
+        return sequences == null || sequences.get(taskID, Long.MIN_VALUE) < sequence;
+    }
+}
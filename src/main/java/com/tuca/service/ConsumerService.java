@@ -1,39 +1,166 @@
 package com.tuca.service;
 
+import com.tuca.cache.TaskSnapshot;
+import com.tuca.event.EventType;
+import com.tuca.event.TaskEvent;
+import com.tuca.event.TaskEventDeserializer;
 import com.tuca.manager.QueueManager;
 import com.tuca.model.Task;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
+/**
+ * Applies task events from {@code swing-topic} a poll batch at a time. Offsets of processed records are
+ * committed together once {@code tasks.consumer.commit-records} have piled up or
+ * {@code tasks.consumer.commit-interval-ms} has passed. The number of records handled per poll follows the
+ * measured cost of a record so a batch stays well inside {@code max.poll.interval.ms}; records past that budget
+ * are sought back and fetched again by the next poll.
+ * <p>
+ * Within a batch, events are spread over {@link EventLanes} by task id, so one task's events keep their order
+ * while other tasks proceed in parallel. Events that touch many tasks or none at all wait for every lane to
+ * drain and run alone. A batch's offsets are only committed after all of its lanes have finished.
+ * <p>
+ * When the write-behind backlog reaches {@code tasks.consumer.pause-backlog} every assigned partition is paused;
+ * polling goes on, so the group membership stays alive, and consumption resumes once the backlog is back under
+ * {@code tasks.consumer.resume-backlog}. Lanes hold at most {@code tasks.consumer.queue-capacity} events before
+ * dispatch waits for them.
+ * <p>
+ * Before dispatch a batch is folded by {@link EventCoalescer}, so a burst of edits to one task costs a single
+ * write per field. Offsets of the folded-away records are committed along with the rest.
+ * <p>
+ * Events that fail are handed to {@link EventFailureHandler}, which moves them to the retry or dead-letter
+ * topic. The retry topic is consumed here as well; a partition whose next record is not due yet is paused until
+ * it is, so waiting retries never hold up {@code swing-topic}. While a failed record cannot be moved, its
+ * partition commits no further than that record and the move is tried again on every poll.
+ */
 @Service
 public class ConsumerService {
 
+    // Share of max.poll.interval.ms a batch may take, the rest is headroom for slow records and the commit.
+    private static final double POLL_BUDGET = 0.5;
+    private static final double COST_SMOOTHING = 0.2;
+
     private final Logger log = LoggerFactory.getLogger(ConsumerService.class);
-    private KafkaConsumer<String, String> consumer;
+    private KafkaConsumer<String, TaskEvent> consumer;
     private final QueueManager queueManager;
     private final TaskService taskService;
+    private final TaskSnapshot taskSnapshot;
+    private final TaskFlushService taskFlushService;
+    private final EventFailureHandler failureHandler;
+    private final MeterRegistry meterRegistry;
+    private final Timer pauseTime;
+    private final Counter eventsReceived;
+    private final Counter eventsApplied;
+    private final DistributionSummary collapseRatio;
+    private final Map<TopicPartition, Long> lags = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Gauge> lagGauges = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long> committedOffsets = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, OffsetAndMetadata> pendingOffsets = new HashMap<>();
     private volatile boolean listening = false;
 
+    @Value("${tasks.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${tasks.consumer.min-batch-size:10}")
+    private int minBatchSize;
+
+    @Value("${tasks.consumer.max-poll-interval-ms:300000}")
+    private long maxPollIntervalMs;
+
+    @Value("${tasks.consumer.fetch-min-bytes:1}")
+    private int fetchMinBytes;
+
+    @Value("${tasks.consumer.fetch-max-wait-ms:500}")
+    private int fetchMaxWaitMs;
+
+    @Value("${tasks.consumer.commit-records:500}")
+    private int commitRecords;
+
+    @Value("${tasks.consumer.commit-interval-ms:1000}")
+    private long commitIntervalMs;
+
+    // 0 uses one lane per core.
+    @Value("${tasks.consumer.lanes:0}")
+    private int laneCount;
+
+    @Value("${tasks.consumer.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${tasks.consumer.pause-backlog:5000}")
+    private int pauseBacklog;
+
+    @Value("${tasks.consumer.resume-backlog:1000}")
+    private int resumeBacklog;
+
+    // Retry partitions paused until their next record is due, in epoch millis.
+    private final Map<TopicPartition, Long> retryDelays = new HashMap<>();
+
+    // Failed records not on the retry or dead-letter topic yet, in failure order.
+    private final Queue<Unmoved> unmoved = new ConcurrentLinkedQueue<>();
+
+    private volatile EventLanes lanes;
+    private volatile boolean paused;
+    private long pausedAtNanos;
+
+    // Only touched by the listener thread.
+    private int batchSize;
+    private double nanosPerRecord;
+    private int uncommittedRecords;
+    private long lastCommitNanos = System.nanoTime();
+
     @Autowired
-    public ConsumerService(QueueManager queueManager, TaskService taskService) {
+    public ConsumerService(QueueManager queueManager, TaskService taskService, TaskSnapshot taskSnapshot, TaskFlushService taskFlushService,
+                           EventFailureHandler failureHandler, MeterRegistry meterRegistry) {
         this.queueManager = queueManager;
         this.taskService = taskService;
+        this.taskSnapshot = taskSnapshot;
+        this.taskFlushService = taskFlushService;
+        this.failureHandler = failureHandler;
+        this.meterRegistry = meterRegistry;
+        this.pauseTime = Timer.builder("tasks.consumer.pause.time").register(meterRegistry);
+        this.eventsReceived = Counter.builder("tasks.consumer.events.received").register(meterRegistry);
+        this.eventsApplied = Counter.builder("tasks.consumer.events.applied").register(meterRegistry);
+        // Received over applied per batch, 1 when nothing was folded.
+        this.collapseRatio = DistributionSummary.builder("tasks.consumer.coalesce.ratio").register(meterRegistry);
+        Gauge.builder("tasks.consumer.queue.depth", this, service -> service.lanes == null ? 0 : service.lanes.pending()).register(meterRegistry);
+        Gauge.builder("tasks.consumer.paused", this, service -> service.paused ? 1 : 0).register(meterRegistry);
+    }
+
+    public Map<TopicPartition, Long> getCommittedOffsets() {
+        return Map.copyOf(committedOffsets);
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -51,57 +178,316 @@ public class ConsumerService {
         props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, "3000"); // 3 segundos
         props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, "10000");   // 10 segundos
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, TaskEventDeserializer.class.getName());
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "5");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, String.valueOf(maxPollIntervalMs));
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(fetchMinBytes));
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, String.valueOf(fetchMaxWaitMs));
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
 
+        batchSize = maxPollRecords;
+        lanes = new EventLanes(laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors());
         consumer = new KafkaConsumer<>(props);
-        consumer.subscribe(Collections.singletonList("swing-topic"));
+        consumer.subscribe(List.of("swing-topic", failureHandler.getRetryTopic()), new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                commitSync();
+                partitions.forEach(pendingOffsets::remove);
+                unmoved.removeIf(held -> partitions.contains(partitionOf(held.record())));
+                partitions.forEach(committedOffsets::remove);
+                partitions.forEach(ConsumerService.this::unregisterLag);
+                partitions.forEach(retryDelays::remove);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                seekToRestoredOffsets(partitions);
+                partitions.forEach(ConsumerService.this::registerLag);
+                if (paused) consumer.pause(partitions);
+            }
+        });
         startListening();
         log.info("[Queue] Kafka Consumer Started");
     }
 
-    private void processRecord(ConsumerRecord<String, String> recordMessage) {
+    private void seekToRestoredOffsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> restoredOffsets = taskSnapshot.getRestoredOffsets();
+        for (TopicPartition partition : partitions) {
+            Long offset = restoredOffsets.remove(partition);
+            if (offset != null) {
+                consumer.seek(partition, offset);
+                log.info("[Queue] Replaying {} from snapshot offset {}", partition, offset);
+            }
+            committedOffsets.put(partition, consumer.position(partition));
+        }
+    }
+
+    private void registerLag(TopicPartition partition) {
+        lagGauges.computeIfAbsent(partition, key -> Gauge.builder("tasks.consumer.lag", lags, map -> map.getOrDefault(key, 0L))
+                .tag("partition", key.toString())
+                .register(meterRegistry));
+    }
+
+    private void unregisterLag(TopicPartition partition) {
+        lags.remove(partition);
+        Gauge gauge = lagGauges.remove(partition);
+        if (gauge != null) meterRegistry.remove(gauge);
+    }
+
+    // Lag from the last fetch response, no broker round trip.
+    private void updateLag() {
+        for (TopicPartition partition : consumer.assignment()) {
+            consumer.currentLag(partition).ifPresent(lag -> lags.put(partition, lag));
+        }
+    }
+
+    private void applyBackpressure() {
+        int backlog = taskFlushService.backlog();
+        if (!paused && backlog >= pauseBacklog) {
+            consumer.pause(consumer.assignment());
+            paused = true;
+            pausedAtNanos = System.nanoTime();
+            log.warn("[Queue] Pausing consumption, {} tasks waiting to be written, lag {}", backlog, totalLag());
+        } else if (paused && backlog <= resumeBacklog) {
+            List<TopicPartition> resumable = new ArrayList<>(consumer.paused());
+            resumable.removeAll(retryDelays.keySet());
+            consumer.resume(resumable);
+            paused = false;
+            long pausedNanos = System.nanoTime() - pausedAtNanos;
+            pauseTime.record(pausedNanos, TimeUnit.NANOSECONDS);
+            log.info("[Queue] Resuming consumption after {} ms, lag {}", pausedNanos / 1_000_000, totalLag());
+        }
+    }
+
+    private void resumeDueRetries() {
+        if (paused || retryDelays.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        List<TopicPartition> due = new ArrayList<>();
+        retryDelays.forEach((partition, dueAt) -> {
+            if (dueAt <= now) due.add(partition);
+        });
+        due.forEach(retryDelays::remove);
+        consumer.resume(due);
+    }
+
+    private long totalLag() {
+        return lags.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    // Handles at most batchSize records of the poll, seeking every partition back to its first record left over.
+    private void processBatch(ConsumerRecords<String, TaskEvent> records) {
+        long start = System.nanoTime();
+        List<ConsumerRecord<String, TaskEvent>> batch = new ArrayList<>(Math.min(records.count(), batchSize));
+        List<ConsumerRecord<String, TaskEvent>> retries = new ArrayList<>();
+
+        for (TopicPartition partition : records.partitions()) {
+            for (ConsumerRecord<String, TaskEvent> record : records.records(partition)) {
+                if (batch.size() + retries.size() == batchSize) {
+                    consumer.seek(partition, record.offset());
+                    break;
+                }
+                long dueAt = failureHandler.dueAt(record);
+                if (dueAt > System.currentTimeMillis()) {
+                    consumer.seek(partition, record.offset());
+                    consumer.pause(List.of(partition));
+                    retryDelays.put(partition, dueAt);
+                    break;
+                }
+                (failureHandler.isRetry(record) ? retries : batch).add(record);
+                pendingOffsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+            }
+        }
+
+        // Retries are older than anything fresh, so they go first and are never folded with newer events.
+        List<ConsumerRecord<String, TaskEvent>> effective = EventCoalescer.coalesce(batch);
+        retries.forEach(this::dispatch);
+        effective.forEach(this::dispatch);
+        lanes.await();
+
+        int processed = batch.size() + retries.size();
+        eventsReceived.increment(processed);
+        eventsApplied.increment(retries.size() + effective.size());
+        if (!effective.isEmpty()) collapseRatio.record((double) batch.size() / effective.size());
+
+        uncommittedRecords += processed;
+        adaptBatchSize(processed, System.nanoTime() - start);
+        if (processed < records.count()) {
+            log.debug("[Queue] Processed {} of {} polled records, the rest is fetched again", processed, records.count());
+        }
+    }
+
+    private void adaptBatchSize(int processed, long elapsedNanos) {
+        if (processed == 0) return;
+
+        double cost = (double) elapsedNanos / processed;
+        nanosPerRecord = nanosPerRecord == 0 ? cost : nanosPerRecord + COST_SMOOTHING * (cost - nanosPerRecord);
+
+        long budgetNanos = (long) (maxPollIntervalMs * 1_000_000L * POLL_BUDGET);
+        int target = (int) Math.max(minBatchSize, Math.min(maxPollRecords, budgetNanos / Math.max(1.0, nanosPerRecord)));
+        if (target != batchSize) {
+            log.debug("[Queue] Batch size {} -> {} at {} us per record", batchSize, target, Math.round(nanosPerRecord / 1000));
+            batchSize = target;
+        }
+    }
+
+    private void commitIfDue() {
+        if (pendingOffsets.isEmpty()) return;
+        if (uncommittedRecords < commitRecords && System.nanoTime() - lastCommitNanos < commitIntervalMs * 1_000_000L) return;
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = takePending();
+        consumer.commitAsync(offsets, (committed, exception) -> {
+            if (exception != null) {
+                log.warn("[Queue] Kafka Consumer commit failed", exception);
+                return;
+            }
+            committed.forEach((partition, metadata) -> committedOffsets.put(partition, metadata.offset()));
+        });
+    }
+
+    private void commitSync() {
+        if (pendingOffsets.isEmpty()) return;
 
+        Map<TopicPartition, OffsetAndMetadata> offsets = takePending();
         try {
-            JSONObject json = new JSONObject(recordMessage.value());
-            String event = json.optString("event");
+            consumer.commitSync(offsets);
+            offsets.forEach((partition, metadata) -> committedOffsets.put(partition, metadata.offset()));
+        } catch (org.apache.kafka.common.KafkaException e) {
+            log.warn("[Queue] Kafka Consumer commit failed", e);
+        }
+    }
 
-            if (!isValidEvent(event)) return;
+    // The pending offsets to commit, each held at the first record of its partition that is not moved yet.
+    private Map<TopicPartition, OffsetAndMetadata> takePending() {
+        Map<TopicPartition, Long> holds = new HashMap<>();
+        for (Unmoved held : unmoved) {
+            holds.merge(partitionOf(held.record()), held.record().offset(), Math::min);
+        }
 
-            long taskID = json.optLong("taskID");
-            Task task = taskService.getByID(taskID);
-            handleEvent(event, json, task);
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        Iterator<Map.Entry<TopicPartition, OffsetAndMetadata>> iterator = pendingOffsets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TopicPartition, OffsetAndMetadata> pending = iterator.next();
+            Long hold = holds.get(pending.getKey());
+            if (hold == null || hold >= pending.getValue().offset()) {
+                offsets.put(pending.getKey(), pending.getValue());
+                iterator.remove();
+            } else {
+                // Stays pending, so the rest of the partition is committed once the record is moved.
+                offsets.put(pending.getKey(), new OffsetAndMetadata(hold));
+            }
+        }
+        uncommittedRecords = 0;
+        lastCommitNanos = System.nanoTime();
+        return offsets;
+    }
 
-        } catch (Exception e) {
-            log.error("[Queue] Error processing record: {}", recordMessage.value(), e);
+    // Tries the held records again in order, stopping at the first one the broker still does not take.
+    private void moveUnmoved() {
+        for (Unmoved held = unmoved.peek(); held != null; held = unmoved.peek()) {
+            if (!held.move().getAsBoolean()) return;
+            unmoved.poll();
+        }
+    }
+
+    private void reject(ConsumerRecord<String, TaskEvent> record, String reason) {
+        move(record, () -> failureHandler.rejected(record, reason));
+    }
+
+    private void fail(ConsumerRecord<String, TaskEvent> record, Exception error) {
+        move(record, () -> failureHandler.failed(record, error));
+    }
+
+    private void move(ConsumerRecord<String, TaskEvent> record, BooleanSupplier move) {
+        if (!move.getAsBoolean()) unmoved.add(new Unmoved(record, move));
+    }
+
+    private static TopicPartition partitionOf(ConsumerRecord<String, TaskEvent> record) {
+        return new TopicPartition(record.topic(), record.partition());
+    }
+
+    private void dispatch(ConsumerRecord<String, TaskEvent> recordMessage) {
+        TaskEvent event = recordMessage.value();
+        if (event == null) {
+            reject(recordMessage, "Undecodable payload, see the origin offset");
+            return;
         }
+
+        if (event instanceof TaskEvent.TaskChange change) {
+            if (lanes.pending() >= queueCapacity) lanes.await();
+            lanes.submit(change.taskID(), () -> processRecord(recordMessage, event));
+            return;
+        }
+        lanes.await();
+        processRecord(recordMessage, event);
     }
 
-    private boolean isValidEvent(String event) {
-        if (event == null || event.isEmpty()) return false;
+    private void processRecord(ConsumerRecord<String, TaskEvent> recordMessage, TaskEvent event) {
+        boolean retry = failureHandler.isRetry(recordMessage);
+
+        try {
+            switch (event) {
+                case TaskEvent.TaskChange change -> {
+                    if (!taskService.accept(change, retry)) {
+                        log.debug("[Queue] Dropping repeated {} for task {}, sequence {}", change.type(), change.taskID(), change.sequence());
+                        return;
+                    }
+                    Task task = taskService.getByID(change.taskID());
+                    if (task == null && change.type() == EventType.DELETE_TASK) {
+                        log.debug("[Queue] Task {} is already deleted", change.taskID());
+                        taskService.applied(change.producerId(), List.of(change.taskID()), change.sequence());
+                        return;
+                    }
+                    if (task == null) {
+                        reject(recordMessage, "Unknown task " + change.taskID());
+                        return;
+                    }
+                    handleEvent(change, task);
+                    taskService.applied(change.producerId(), List.of(change.taskID()), change.sequence());
+                }
+                case TaskEvent.BulkChange bulk -> handleBulkEvent(bulk, retry);
+                case TaskEvent.Signal signal -> {
+                    switch (signal.type()) {
+                        case CLOSING_PROGRAM -> taskService.flush();
+                        default -> log.warn("[Queue] {} needs a task", signal.type());
+                    }
+                }
+            }
 
-        String[] accepted = {"UPDATE_DESCRIPTION", "UPDATE_STATUS", "CREATE_TASK", "DELETE_TASK", "CLOSING_PROGRAM"};
-        return Arrays.asList(accepted).contains(event.toUpperCase());
+        } catch (Exception e) {
+            fail(recordMessage, e);
+        }
     }
 
-    private void handleEvent(String event, JSONObject json, Task task) {
-        String newValue = json.optString("newValue", null);
+    private void handleEvent(TaskEvent.TaskChange change, Task task) {
+        String newValue = change.newValue();
 
-        switch (event.toUpperCase()) {
-            case "UPDATE_DESCRIPTION" -> taskService.update("DESCRIPTION", task, newValue);
-            case "UPDATE_STATUS" -> taskService.update("STATUS", task, newValue);
-            case "CREATE_TASK" -> taskService.create(task);
-            case "DELETE_TASK" -> {
+        switch (change.type()) {
+            case UPDATE_DESCRIPTION -> taskService.update("DESCRIPTION", task, newValue);
+            case UPDATE_STATUS -> taskService.update("STATUS", task, newValue);
+            case CREATE_TASK -> taskService.create(task);
+            case DELETE_TASK -> {
                 log.info("testando..");
                 taskService.delete(task.getId());
             }
-            case "CLOSING_PROGRAM" -> taskService.saveAll();
-            default -> consumer.commitAsync();
+            default -> log.warn("[Queue] {} needs a task list", change.type());
+        }
+    }
+
+    private void handleBulkEvent(TaskEvent.BulkChange bulk, boolean retry) {
+        List<Long> taskIDs = taskService.acceptAll(bulk, retry);
+        if (taskIDs.isEmpty()) {
+            log.debug("[Queue] Dropping repeated {}, sequence {}", bulk.type(), bulk.sequence());
+            return;
+        }
 
+        switch (bulk.type()) {
+            case BULK_UPDATE_STATUS -> taskService.updateStatusAll(taskIDs, bulk.newValue());
+            case BULK_DELETE -> taskService.deleteAll(taskIDs);
+            default -> log.warn("[Queue] {} does not accept a task list", bulk.type());
         }
-        consumer.commitAsync();
+        taskService.applied(bulk.producerId(), taskIDs, bulk.sequence());
     }
 
     @PostConstruct
@@ -109,18 +495,25 @@ public class ConsumerService {
         if (consumer == null || listening) return;
 
         Thread listenerThread = new Thread(() -> {
-            log.info("[Queue] Kafka Consumer Listening, queue size: {}", queueManager.getQueue().size());
+            log.info("[Queue] Kafka Consumer Listening on {} lanes, queue size: {}", lanes.size(), queueManager.getQueue().size());
             listening = true;
 
             try {
                 while (listening) {
-                    ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(500));
-                    records.forEach(this::processRecord);
+                    ConsumerRecords<String, TaskEvent> records = consumer.poll(Duration.ofMillis(500));
+                    if (!records.isEmpty()) processBatch(records);
+                    moveUnmoved();
+                    commitIfDue();
+                    updateLag();
+                    applyBackpressure();
+                    resumeDueRetries();
                 }
             } catch (org.apache.kafka.common.errors.WakeupException e) {
                 if (listening) throw e;
             } finally {
-                consumer.commitAsync();
+                lanes.close();
+                moveUnmoved();
+                commitSync();
                 log.info("[Queue] Kafka Consumer committed.");
             }
         });
@@ -128,4 +521,7 @@ public class ConsumerService {
         listenerThread.setDaemon(true);
         listenerThread.start();
     }
-}
\ No newline at end of file
+
+    private record Unmoved(ConsumerRecord<String, TaskEvent> record, BooleanSupplier move) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.tuca.service;
+
+import com.tuca.cache.LongIntMap;
+import com.tuca.event.TaskEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds a poll batch into the changes that still matter once the batch is applied. An update is dropped when a
+ * later event of the same batch sets the same field of the task again or deletes it, and a delete when the task
+ * is deleted again later. Bulk events and signals are left alone and nothing is folded across them, since they
+ * may read or change any task.
+ */
+final class EventCoalescer {
+
+    private static final int STATUS = 1;
+    private static final int DESCRIPTION = 1 << 1;
+    private static final int DELETED = 1 << 2;
+
+    private EventCoalescer() {
+    }
+
+    static List<ConsumerRecord<String, TaskEvent>> coalesce(List<ConsumerRecord<String, TaskEvent>> records) {
+        boolean[] superseded = new boolean[records.size()];
+        LongIntMap later = new LongIntMap();
+
+        // Walking backwards, later tells what the rest of the segment does to each task.
+        for (int i = records.size() - 1; i >= 0; i--) {
+            TaskEvent event = records.get(i).value();
+            if (event == null) continue;
+            if (!(event instanceof TaskEvent.TaskChange change)) {
+                later = new LongIntMap();
+                continue;
+            }
+
+            int field = switch (change.type()) {
+                case UPDATE_STATUS -> STATUS;
+                case UPDATE_DESCRIPTION -> DESCRIPTION;
+                case DELETE_TASK -> DELETED;
+                default -> 0;
+            };
+            if (field == 0) continue;
+
+            int seen = later.get(change.taskID());
+            if ((seen & (field | DELETED)) != 0) {
+                superseded[i] = true;
+                continue;
+            }
+            later.or(change.taskID(), field);
+        }
+
+        List<ConsumerRecord<String, TaskEvent>> effective = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            if (!superseded[i]) effective.add(records.get(i));
+        }
+        return effective;
+    }
+}
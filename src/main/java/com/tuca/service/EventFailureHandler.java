@@ -0,0 +1,165 @@
+package com.tuca.service;
+
+import com.tuca.event.TaskEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides what becomes of an event that failed to apply. Transient database failures go to the retry topic
+ * stamped with the attempt number and the time they are due again, backing off exponentially; anything else,
+ * or a transient failure out of attempts, goes to the dead-letter topic with the error in its headers. Once
+ * the broker has the copy the original offset can be committed, so one bad record never holds up the partition;
+ * when it does not, the caller gets false and must keep the offset uncommitted and try again.
+ */
+@Component
+public class EventFailureHandler {
+
+    static final String ATTEMPT_HEADER = "task-retry-attempt";
+    static final String DUE_HEADER = "task-retry-due";
+    static final String ERROR_CLASS_HEADER = "task-error-class";
+    static final String ERROR_MESSAGE_HEADER = "task-error-message";
+    static final String ORIGIN_HEADER = "task-origin";
+
+    private static final long PUBLISH_TIMEOUT_MS = 10_000;
+
+    private final Logger log = LoggerFactory.getLogger(EventFailureHandler.class);
+
+    private final ProducerService producerService;
+    private final Counter retried;
+    private final Counter deadLettered;
+
+    @Value("${tasks.consumer.retry.topic:swing-topic-retry}")
+    private String retryTopic;
+
+    @Value("${tasks.consumer.dead-letter.topic:swing-topic-dlt}")
+    private String deadLetterTopic;
+
+    @Value("${tasks.consumer.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${tasks.consumer.retry.backoff-ms:1000}")
+    private long backoffMs;
+
+    @Value("${tasks.consumer.retry.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    @Autowired
+    public EventFailureHandler(ProducerService producerService, MeterRegistry meterRegistry) {
+        this.producerService = producerService;
+        this.retried = Counter.builder("tasks.consumer.events.retried").register(meterRegistry);
+        this.deadLettered = Counter.builder("tasks.consumer.events.dead-lettered").register(meterRegistry);
+    }
+
+    public String getRetryTopic() {
+        return retryTopic;
+    }
+
+    public boolean isRetry(ConsumerRecord<String, TaskEvent> record) {
+        return retryTopic.equals(record.topic());
+    }
+
+    // When a record from the retry topic may run again, 0 for any other record.
+    public long dueAt(ConsumerRecord<String, TaskEvent> record) {
+        return longHeader(record, DUE_HEADER);
+    }
+
+    // False when the event could not be moved and its offset must not be committed.
+    public boolean failed(ConsumerRecord<String, TaskEvent> record, Exception error) {
+        int attempt = (int) longHeader(record, ATTEMPT_HEADER) + 1;
+        if (!isTransient(error) || attempt > maxAttempts) {
+            if (!deadLetter(record, error.getClass().getName(), String.valueOf(error.getMessage()))) return false;
+            log.error("[Queue] Dead-lettered {} after {} attempts", record.value(), attempt, error);
+            return true;
+        }
+
+        long delay = Math.min(maxBackoffMs, backoffMs << Math.min(attempt - 1, 30));
+        List<Header> headers = origin(record);
+        headers.add(new RecordHeader(ATTEMPT_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(attempt).array()));
+        headers.add(new RecordHeader(DUE_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(System.currentTimeMillis() + delay).array()));
+        headers.add(new RecordHeader(ERROR_CLASS_HEADER, bytes(error.getClass().getName())));
+        if (!publish(retryTopic, record, headers)) return false;
+
+        retried.increment();
+        log.warn("[Queue] Retrying {} in {} ms, attempt {} of {}: {}", record.value(), delay, attempt, maxAttempts, error.toString());
+        return true;
+    }
+
+    // For events that can never apply, like an update to a task that does not exist.
+    public boolean rejected(ConsumerRecord<String, TaskEvent> record, String reason) {
+        if (!deadLetter(record, IllegalArgumentException.class.getName(), reason)) return false;
+
+        log.warn("[Queue] Dead-lettered {}: {}", record.value(), reason);
+        return true;
+    }
+
+    private boolean deadLetter(ConsumerRecord<String, TaskEvent> record, String errorClass, String message) {
+        List<Header> headers = origin(record);
+        headers.add(new RecordHeader(ATTEMPT_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(longHeader(record, ATTEMPT_HEADER)).array()));
+        headers.add(new RecordHeader(ERROR_CLASS_HEADER, bytes(errorClass)));
+        headers.add(new RecordHeader(ERROR_MESSAGE_HEADER, bytes(message)));
+        if (!publish(deadLetterTopic, record, headers)) return false;
+
+        deadLettered.increment();
+        return true;
+    }
+
+    // Waits for the broker so the original offset is only committed once the event is safe elsewhere.
+    private boolean publish(String topic, ConsumerRecord<String, TaskEvent> record, List<Header> headers) {
+        try {
+            producerService.republish(topic, record.key(), record.value(), headers).get(PUBLISH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("[Queue] Could not move {} to {}, keeping its offset uncommitted", record.value(), topic, e);
+        }
+        return false;
+    }
+
+    // The first topic, partition and offset the event was read from, kept across retries.
+    private static List<Header> origin(ConsumerRecord<String, TaskEvent> record) {
+        List<Header> headers = new ArrayList<>();
+        Header origin = record.headers().lastHeader(ORIGIN_HEADER);
+        headers.add(origin != null ? origin : new RecordHeader(ORIGIN_HEADER, bytes(record.topic() + "-" + record.partition() + "@" + record.offset())));
+        return headers;
+    }
+
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long longHeader(ConsumerRecord<String, TaskEvent> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null || header.value().length != Long.BYTES ? 0 : ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,81 @@
+package com.tuca.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ordered lanes for task events. Events of one task always land on the same lane and run in submission
+ * order, events of different tasks run in parallel. Each lane is a single virtual thread, so a lane blocked on
+ * MySQL costs no carrier thread.
+ */
+class EventLanes implements AutoCloseable {
+
+    private final Logger log = LoggerFactory.getLogger(EventLanes.class);
+
+    private final ExecutorService[] lanes;
+    private final List<Future<?>> inFlight = new ArrayList<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    EventLanes(int size) {
+        lanes = new ExecutorService[size];
+        for (int i = 0; i < size; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("task-lane-" + i).factory());
+        }
+    }
+
+    int size() {
+        return lanes.length;
+    }
+
+    // Events submitted and not finished yet, safe to read from any thread.
+    int pending() {
+        return pending.get();
+    }
+
+    void submit(long taskID, Runnable event) {
+        pending.incrementAndGet();
+        inFlight.add(lanes[laneOf(taskID)].submit(() -> {
+            try {
+                event.run();
+            } finally {
+                pending.decrementAndGet();
+            }
+        }));
+    }
+
+    // Waits for everything submitted so far; afterwards every lane is idle.
+    void await() {
+        for (Future<?> future : inFlight) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.error("[Queue] Event lane failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        inFlight.clear();
+    }
+
+    @Override
+    public void close() {
+        await();
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private int laneOf(long taskID) {
+        long hash = taskID * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) lanes.length);
+    }
+}
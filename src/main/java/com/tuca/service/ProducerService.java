@@ -1,23 +1,63 @@
 package com.tuca.service;
 
+import com.tuca.event.EventType;
+import com.tuca.event.TaskEvent;
+import com.tuca.event.TaskEventSerializer;
 import com.tuca.model.Task;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.serialization.StringSerializer;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Properties;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Publishes task events to {@code swing-topic}, keyed by task id so every event of a task lands on the same
+ * partition in send order. Batching, compression and idempotence come from {@code tasks.producer.*}; the
+ * {@code latency} profile trades them for the shortest send delay.
+ * <p>
+ * Changes carry this instance's random producer id and a sequence taken from one counter for all tasks, so the
+ * sequences seen for any single task only ever grow and consumers can drop repeats.
+ */
 @Service
 public class ProducerService implements InitializingBean {
 
-    private KafkaProducer<String, String> producer;
+    private KafkaProducer<String, TaskEvent> producer;
     private final Logger log = LoggerFactory.getLogger(ProducerService.class);
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final long producerId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+
+    @Value("${tasks.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${tasks.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${tasks.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${tasks.producer.idempotence:true}")
+    private boolean idempotence;
+
+    // binary, or json to read events off the topic while debugging.
+    @Value("${tasks.producer.event-format:binary}")
+    private String eventFormat;
+
+    // One INFO line per this many successful sends, the rest only at DEBUG.
+    @Value("${tasks.producer.log-every:1000}")
+    private long logEvery;
 
     @Override
     public void afterPropertiesSet() {
@@ -28,45 +68,52 @@ public class ProducerService implements InitializingBean {
     private void initProducer() {
         Properties props = new Properties();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
         props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
 
-        producer = new KafkaProducer<>(props);
+        producer = new KafkaProducer<>(props, new StringSerializer(), new TaskEventSerializer("json".equalsIgnoreCase(eventFormat)));
         log.info("[Queue] Kafka Producer Started");
     }
 
-    public void sendEvent(Task task, String eventName, String newValue) {
-        JSONObject event = createBaseEvent(eventName);
-        event.put("taskID", task.getId());
-        event.put("newValue", newValue);
-        send(event);
+    public void sendEvent(Task task, EventType type, String newValue) {
+        send(task.getId(), new TaskEvent.TaskChange(type, task.getId(), newValue, producerId, sequence.incrementAndGet()));
+    }
+
+    public void sendEvent(EventType type) {
+        send(null, new TaskEvent.Signal(type));
     }
 
-    public void sendEvent(String eventName) {
-        send(createBaseEvent(eventName));
+    public void sendEvent(EventType type, long taskID) {
+        send(taskID, new TaskEvent.TaskChange(type, taskID, null, producerId, sequence.incrementAndGet()));
     }
 
-    public void sendEvent(String eventName, long taskID) {
-        JSONObject event = createBaseEvent(eventName);
-        event.put("taskID", taskID);
-        send(event);
+    public void sendBulkEvent(EventType type, Collection<Long> taskIDs, String newValue) {
+        send(null, new TaskEvent.BulkChange(type, taskIDs.stream().mapToLong(Long::longValue).toArray(), newValue, producerId,
+                sequence.incrementAndGet()));
     }
 
-    private JSONObject createBaseEvent(String eventName) {
-        JSONObject event = new JSONObject();
-        event.put("event", eventName);
-        return event;
+    // Puts an event consumed from swing-topic on a retry or dead-letter topic, key and stamp unchanged.
+    public Future<RecordMetadata> republish(String topic, String key, TaskEvent event, Iterable<Header> headers) {
+        return producer.send(new ProducerRecord<>(topic, null, key, event, headers));
     }
 
-    private void send(Object payload) {
-        ProducerRecord<String, String> recordProducer = new ProducerRecord<>("swing-topic", payload.toString());
+    // Events without a single task, bulk ones included, go unkeyed and are spread by the sticky partitioner.
+    private void send(Long taskID, TaskEvent payload) {
+        String key = taskID == null ? null : taskID.toString();
+        ProducerRecord<String, TaskEvent> recordProducer = new ProducerRecord<>("swing-topic", key, payload);
 
         producer.send(recordProducer, (metadata, exception) -> {
             if (exception != null) {
-                log.error("[Queue] Kafka Producer Send Error", exception);
-            } else {
-                log.info("[Queue] Kafka Producer Send Success, offset: {}, msg: {}", metadata.offset(), payload);
+                log.error("[Queue] Kafka Producer Send Error, key: {}, msg: {}", key, payload, exception);
+                return;
+            }
+            log.debug("[Queue] Kafka Producer Send Success, partition: {}, offset: {}, msg: {}", metadata.partition(), metadata.offset(), payload);
+            long total = sent.incrementAndGet();
+            if (logEvery > 0 && total % logEvery == 0) {
+                log.info("[Queue] Kafka Producer sent {} events, last offset: {}", total, metadata.offset());
             }
         });
     }
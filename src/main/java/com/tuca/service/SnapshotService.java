@@ -0,0 +1,63 @@
+package com.tuca.service;
+
+import com.tuca.cache.TaskCache;
+import com.tuca.cache.TaskJournal;
+import com.tuca.cache.TaskSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Service
+public class SnapshotService {
+
+    private final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+    private final TaskCache taskCache;
+    private final TaskSnapshot taskSnapshot;
+    private final TaskJournal taskJournal;
+    private final TaskFlushService taskFlushService;
+    private final ConsumerService consumerService;
+
+    @Autowired
+    public SnapshotService(TaskCache taskCache, TaskSnapshot taskSnapshot, TaskJournal taskJournal, TaskFlushService taskFlushService,
+                           ConsumerService consumerService) {
+        this.taskCache = taskCache;
+        this.taskSnapshot = taskSnapshot;
+        this.taskJournal = taskJournal;
+        this.taskFlushService = taskFlushService;
+        this.consumerService = consumerService;
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.snapshot.interval-ms:300000}", initialDelayString = "${tasks.snapshot.interval-ms:300000}")
+    public void snapshot() {
+        // Offsets are read before the tasks, so replaying from them can only re-apply events the snapshot already has.
+        Map<TopicPartition, Long> offsets = consumerService.getCommittedOffsets();
+
+        // Restores do not mark anything dirty, so flush first to keep the snapshot and MySQL in step.
+        if (!taskFlushService.flush()) {
+            log.warn("[Tasks] Skipping snapshot, pending changes could not be flushed");
+            return;
+        }
+
+        // Captured before reading the tasks, so replaying past it can only re-apply changes the snapshot already has.
+        long journalLsn = taskJournal.lastLsn();
+        try {
+            taskSnapshot.write(taskCache.getTasks(), offsets, journalLsn);
+            taskJournal.markSnapshot(journalLsn);
+        } catch (IOException e) {
+            log.error("[Tasks] Failed to write snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        snapshot();
+    }
+}
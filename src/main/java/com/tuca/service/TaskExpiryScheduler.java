@@ -0,0 +1,105 @@
+package com.tuca.service;
+
+import com.tuca.cache.TaskAggregates;
+import com.tuca.cache.TaskCache;
+import com.tuca.model.Task;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires one timer per open task at its expiry date and moves the task to "Atrasada".
+ * <p>
+ * Timers live in the executor's delay heap, so arming and cancelling are O(log n) and the only work done
+ * while nothing expires is the heap sleeping until the next deadline. Every change to a task goes through
+ * {@link #track(Task)}, which re-arms, moves or cancels its timer.
+ */
+@Service
+public class TaskExpiryScheduler {
+
+    private final Logger log = LoggerFactory.getLogger(TaskExpiryScheduler.class);
+
+    private final TaskCache taskCache;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<Long, Deadline> deadlines = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TaskExpiryScheduler(TaskCache taskCache) {
+        this.taskCache = taskCache;
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "task-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    public void track(Task task) {
+        if (!isOpen(task)) {
+            cancel(task.getId());
+            return;
+        }
+
+        long expiryDate = task.getExpiryDate();
+        deadlines.compute(task.getId(), (taskID, deadline) -> {
+            if (deadline != null) {
+                if (deadline.expiryDate == expiryDate) return deadline;
+                deadline.future.cancel(false);
+            }
+            long delay = Math.max(0, expiryDate - System.currentTimeMillis());
+            return new Deadline(expiryDate, executor.schedule(() -> expire(taskID, expiryDate), delay, TimeUnit.MILLISECONDS));
+        });
+    }
+
+    public void cancel(long taskID) {
+        Deadline deadline = deadlines.remove(taskID);
+        if (deadline != null) deadline.future.cancel(false);
+    }
+
+    public int pending() {
+        return deadlines.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void expire(long taskID, long expiryDate) {
+        // Only forget the deadline that fired, a newer one may have replaced it in the meantime.
+        deadlines.computeIfPresent(taskID, (id, deadline) -> deadline.expiryDate == expiryDate ? null : deadline);
+
+        Task task = taskCache.peek(taskID);
+        if (task == null || !isOpen(task)) return;
+        if (task.getExpiryDate() > System.currentTimeMillis()) {
+            track(task);
+            return;
+        }
+
+        Task expired = task.copy();
+        expired.setStatus("Atrasada");
+        if (taskCache.replace(task, expired)) {
+            log.info("[Tasks] Task {} has expired, changing status to ATRASADA.", taskID);
+            return;
+        }
+
+        // Lost a race with another writer, judge the task again as it is now.
+        Task latest = taskCache.peek(taskID);
+        if (latest != null) track(latest);
+    }
+
+    private static boolean isOpen(Task task) {
+        return TaskAggregates.groupOf(task.getStatus()) == TaskAggregates.Group.PENDING;
+    }
+
+    private record Deadline(long expiryDate, ScheduledFuture<?> future) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.tuca.service;
+
+import com.tuca.cache.LongIntMap;
+import com.tuca.cache.TaskCache;
+import com.tuca.cache.TaskJournal;
+import com.tuca.model.Task;
+import com.tuca.store.TaskStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class TaskFlushService {
+
+    private final Logger log = LoggerFactory.getLogger(TaskFlushService.class);
+
+    private final TaskCache taskCache;
+    private final TaskStore taskStore;
+    private final TaskJournal taskJournal;
+    private final Timer flushLatency;
+    private final DistributionSummary flushSize;
+
+    @Value("${tasks.flush.interval-ms:5000}")
+    private long flushIntervalMs;
+
+    @Value("${tasks.flush.threshold:500}")
+    private int flushThreshold;
+
+    @Value("${tasks.flush.batch-size:200}")
+    private int batchSize;
+
+    private volatile long lastFlushMillis = System.currentTimeMillis();
+    private volatile int flushing;
+
+    @Autowired
+    public TaskFlushService(TaskCache taskCache, TaskStore taskStore, TaskJournal taskJournal, MeterRegistry meterRegistry) {
+        this.taskCache = taskCache;
+        this.taskStore = taskStore;
+        this.taskJournal = taskJournal;
+        this.flushLatency = Timer.builder("tasks.flush.latency").register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("tasks.flush.size").baseUnit("tasks").register(meterRegistry);
+        Gauge.builder("tasks.flush.dirty", taskCache, TaskCache::dirtyCount).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void flushIfDue() {
+        boolean intervalElapsed = System.currentTimeMillis() - lastFlushMillis >= flushIntervalMs;
+        if (intervalElapsed || taskCache.dirtyCount() >= flushThreshold) flush();
+    }
+
+    // Tasks changed in the cache but not yet written to MySQL, counting the ones a running flush is writing.
+    public int backlog() {
+        return taskCache.dirtyCount() + flushing;
+    }
+
+    public synchronized boolean flush() {
+        lastFlushMillis = System.currentTimeMillis();
+        // Every change journaled up to here is either already in MySQL or in the dirty set drained below.
+        long lsn = taskJournal.lastLsn();
+        LongIntMap dirty = taskCache.drainDirty();
+        if (dirty.isEmpty()) {
+            taskJournal.markFlushed(lsn);
+            return true;
+        }
+
+        // Rows changed in the same columns share one statement, so a status click only rewrites the status.
+        Map<Integer, List<Task>> tasksByFields = new TreeMap<>();
+        int count = 0;
+        for (long taskID : dirty.sortedKeys()) {
+            Task task = taskCache.peek(taskID);
+            if (task == null) continue;
+            tasksByFields.computeIfAbsent(dirty.get(taskID), fields -> new ArrayList<>()).add(task);
+            count++;
+        }
+
+        long start = System.nanoTime();
+        flushing = count;
+        try {
+            for (Map.Entry<Integer, List<Task>> group : tasksByFields.entrySet()) {
+                taskStore.updateFields(group.getValue(), group.getKey(), batchSize);
+            }
+        } catch (DataAccessException e) {
+            for (long taskID : dirty.sortedKeys()) taskCache.markDirty(taskID, dirty.get(taskID));
+            log.error("[Tasks] Failed to flush {} dirty tasks, they will be retried", count, e);
+            return false;
+        } finally {
+            flushing = 0;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        flushLatency.record(elapsed, TimeUnit.NANOSECONDS);
+        flushSize.record(count);
+        taskJournal.markFlushed(lsn);
+        log.info("[Tasks] Flushed {} dirty tasks in {} column groups in {} ms", count, tasksByFields.size(), elapsed / 1_000_000);
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package com.tuca.service;
+
+import com.tuca.cache.TaskCache;
+import com.tuca.cache.TaskJournal;
+import com.tuca.cache.TaskSnapshot;
+import com.tuca.model.Task;
+import com.tuca.store.TaskStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class TaskLoader {
+
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final Logger log = LoggerFactory.getLogger(TaskLoader.class);
+
+    private final TaskStore taskStore;
+    private final TaskCache taskCache;
+    private final TaskSnapshot taskSnapshot;
+    private final TaskJournal taskJournal;
+    private final TaskFlushService taskFlushService;
+
+    // Keep below spring.datasource.hikari.maximum-pool-size, each worker holds a connection per page.
+    @Value("${tasks.load.parallelism:0}")
+    private int parallelism;
+
+    @Value("${tasks.load.page-size:1000}")
+    private int pageSize;
+
+    @Autowired
+    public TaskLoader(TaskStore taskStore, TaskCache taskCache, TaskSnapshot taskSnapshot, TaskJournal taskJournal,
+                      TaskFlushService taskFlushService) {
+        this.taskStore = taskStore;
+        this.taskCache = taskCache;
+        this.taskSnapshot = taskSnapshot;
+        this.taskJournal = taskJournal;
+        this.taskFlushService = taskFlushService;
+    }
+
+    public void loadAll() {
+        if (taskSnapshot.restore(taskCache::load)) {
+            taskJournal.replayAfter(taskSnapshot.getRestoredLsn(), journalReplayer());
+            // A snapshot of a bounded cache misses the tasks evicted before it, the store still counts them.
+            if (taskFlushService.flush()) {
+                taskCache.recount();
+            } else {
+                log.warn("[Tasks] Could not flush after the restore, dashboard counts only cover cached tasks");
+            }
+        } else {
+            loadFromDatabase();
+            taskJournal.replay(journalReplayer());
+        }
+    }
+
+    private TaskJournal.Replayer journalReplayer() {
+        return new TaskJournal.Replayer() {
+            @Override
+            public void put(long taskID, int fields, Task values) {
+                taskCache.replay(taskID, fields, values);
+            }
+
+            @Override
+            public void delete(long taskID) {
+                taskCache.replayDelete(taskID);
+            }
+        };
+    }
+
+    private int loadFromDatabase() {
+        Long minID = taskStore.findMinId();
+        Long maxID = taskStore.findMaxId();
+        if (minID == null || maxID == null) return 0;
+
+        int threads = parallelism > 0 ? parallelism : Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        long partitions = (long) threads * PARTITIONS_PER_THREAD;
+        long span = Math.max(1, (maxID - minID + partitions) / partitions);
+
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, loaderThreadFactory());
+        try {
+            List<Future<Integer>> partitionLoads = new ArrayList<>();
+            for (long lower = minID - 1; lower < maxID; lower += span) {
+                long afterID = lower;
+                long upperID = Math.min(lower + span, maxID);
+                partitionLoads.add(executor.submit(() -> loadRange(afterID, upperID)));
+            }
+
+            int loaded = 0;
+            for (Future<Integer> partitionLoad : partitionLoads) {
+                loaded += partitionLoad.get();
+            }
+            log.info("[Tasks] Loaded {} tasks in {} ms using {} threads", loaded, System.currentTimeMillis() - start, threads);
+            return loaded;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading tasks", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load tasks", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int loadRange(long afterID, long upperID) {
+        int loaded = 0;
+        long cursor = afterID;
+        while (true) {
+            List<Task> page = taskStore.findRange(cursor, upperID, pageSize);
+            taskCache.loadAll(page);
+            loaded += page.size();
+
+            if (page.size() < pageSize) return loaded;
+            cursor = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private static ThreadFactory loaderThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "task-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,34 +1,58 @@
 package com.tuca.service;
 
+import com.tuca.cache.CacheVersion;
+import com.tuca.cache.TaskAggregates;
 import com.tuca.cache.TaskCache;
+import com.tuca.event.TaskEvent;
 import com.tuca.model.Task;
-import com.tuca.repository.TaskRepository;
+import com.tuca.store.TaskStore;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 @EnableScheduling
 public class TaskService {
 
-    private final TaskRepository taskRepository;
+    private final TaskStore taskStore;
     private final TaskCache taskCache;
+    private final TaskFlushService taskFlushService;
+    private final TaskLoader taskLoader;
+    private final TaskAggregates taskAggregates;
+    private final TaskExpiryScheduler taskExpiryScheduler;
 
     @Autowired
-    public TaskService(TaskRepository taskRepository, TaskCache taskCache) {
-        this.taskRepository = taskRepository;
+    public TaskService(TaskStore taskStore, TaskCache taskCache, TaskFlushService taskFlushService, TaskLoader taskLoader,
+                       TaskAggregates taskAggregates, TaskExpiryScheduler taskExpiryScheduler) {
+        this.taskStore = taskStore;
         this.taskCache = taskCache;
+        this.taskFlushService = taskFlushService;
+        this.taskLoader = taskLoader;
+        this.taskAggregates = taskAggregates;
+        this.taskExpiryScheduler = taskExpiryScheduler;
     }
 
     private final Logger log = LoggerFactory.getLogger(TaskService.class);
 
+    private final AppliedSequences appliedSequences = new AppliedSequences();
+
+
+    public CacheVersion snapshot() {
+        return taskCache.snapshot();
+    }
+
+    public TaskAggregates getAggregates() {
+        return taskAggregates;
+    }
 
     public List<Task> getAll() {
         return taskCache.getTasks();
@@ -38,16 +62,45 @@ public class TaskService {
         return taskCache.getByID(id);
     }
 
+    public List<Task> getByStatus(String status) {
+        return taskCache.getByStatus(status);
+    }
+
+    public int countByStatus(String status) {
+        return taskCache.countByStatus(status);
+    }
+
+    public List<Task> search(String query, int limit, Predicate<Task> filter) {
+        return taskCache.search(query, limit, filter);
+    }
+
+    // False for an event of the producer already applied to the task, or older than one that was.
+    public boolean accept(TaskEvent.TaskChange change, boolean retry) {
+        return appliedSequences.accept(change, retry);
+    }
+
+    // The tasks of a bulk event that accept it.
+    public List<Long> acceptAll(TaskEvent.BulkChange bulk, boolean retry) {
+        return appliedSequences.accept(bulk, retry);
+    }
+
+    public void applied(long producerId, Collection<Long> taskIDs, long sequence) {
+        appliedSequences.applied(producerId, taskIDs, sequence);
+    }
+
     public void update(String type, Task task, String newValue) {
-        boolean updated = true;
+        Task updated = task.copy();
 
         switch (type) {
-            case "DESCRIPTION" -> task.setDescription(newValue);
-            case "STATUS" -> task.setStatus(newValue);
-            case "OWNER_NAME" -> task.setOwnerName(newValue);
-            default -> updated = false;
+            case "DESCRIPTION" -> updated.setDescription(newValue);
+            case "STATUS" -> updated.setStatus(newValue);
+            case "OWNER_NAME" -> updated.setOwnerName(newValue);
+            default -> {
+                return;
+            }
         }
-        if (updated) saveAll();
+        taskCache.update(updated);
+        taskExpiryScheduler.track(updated);
     }
 
 
@@ -55,42 +108,61 @@ public class TaskService {
         if (!taskCache.contains(task.getId())) {
 
             log.info("[Tasks] Creating task in database with id {}", task.getId());
-            taskCache.save(task);
-            return taskRepository.save(task);
+            Task created = taskStore.insert(task);
+            return track(taskCache.save(created));
         }
         log.info("[Tasks] Created task with id {}", task.getId());
-        return taskCache.save(task);
+        return track(taskCache.save(task));
     }
 
     public void delete(long taskID) {
         log.info("[Tasks] Deleting task with id {}", taskID);
-        taskCache.remove(taskID);
-        taskRepository.deleteById(taskID);
+        List<Task> deleted = taskStore.deleteAll(List.of(taskID));
+        taskCache.removeAll(List.of(taskID), deleted);
+        taskExpiryScheduler.cancel(taskID);
     }
 
-    @Scheduled(fixedRate = 40, timeUnit = TimeUnit.SECONDS)
-    public void saveAll() {
-        log.info("[Tasks] Saving all tasks");
-        taskRepository.saveAll(taskCache.getTasks());
+    public int updateStatusAll(Collection<Long> taskIDs, String status) {
+        List<Task> updated = new ArrayList<>(taskIDs.size());
+        for (long taskID : taskIDs) {
+            Task task = taskCache.getByID(taskID);
+            if (task == null || status.equals(task.getStatus())) continue;
+
+            Task copy = task.copy();
+            copy.setStatus(status);
+            updated.add(copy);
+        }
+        taskCache.saveAll(updated);
+        updated.forEach(taskExpiryScheduler::track);
+        log.info("[Tasks] Changed status of {} tasks to {}", updated.size(), status);
+        return updated.size();
     }
 
-    @Scheduled(fixedRate = 30, timeUnit = TimeUnit.SECONDS)
-    public void checkAll() {
-        log.info("[Tasks] Checking all tasks");
-        taskCache.getTasks().forEach(task -> {
+    public void deleteAll(Collection<Long> taskIDs) {
+        log.info("[Tasks] Deleting {} tasks", taskIDs.size());
+        List<Task> deleted = taskStore.deleteAll(taskIDs);
+        taskCache.removeAll(taskIDs, deleted);
+        taskIDs.forEach(taskExpiryScheduler::cancel);
+    }
 
-            if (task.getStatus().equalsIgnoreCase("Completa")) return;
-            if (task.getExpiryDate() < task.getStartDate()) {
-                log.info("[Tasks] A task have expired, changing status to ATRASADA.");
-                task.setStatus("Atrasada");
-                taskCache.save(task);
-            }
-        });
+    public void flush() {
+        log.info("[Tasks] Flushing pending task changes");
+        taskFlushService.flush();
     }
 
     @PostConstruct
     public void loadAll() {
-        taskCache.loadAll();
         log.info("[Tasks] Loading all tasks");
+        taskLoader.loadAll();
+
+        Stream.of("Pendente", "Incompleta")
+                .flatMap(status -> taskCache.getByStatus(status).stream())
+                .forEach(taskExpiryScheduler::track);
+        log.info("[Tasks] Armed {} expiry timers", taskExpiryScheduler.pending());
+    }
+
+    private Task track(Task task) {
+        taskExpiryScheduler.track(task);
+        return task;
     }
 }
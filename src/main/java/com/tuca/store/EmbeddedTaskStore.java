@@ -0,0 +1,459 @@
+package com.tuca.store;
+
+import com.tuca.model.Task;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log-structured task store for single-node installs, active with the {@code embedded} profile.
+ * <p>
+ * Every insert, update and delete appends a CRC-framed record to {@code store-<generation>.log} and each
+ * batch is forced to disk once. An in-memory index maps ids to their latest record, so a lookup is one
+ * positional read. Overwritten and deleted records are garbage; once they outweigh
+ * {@code tasks.store.compaction-ratio} of the file the live records are copied into the next generation and
+ * the old file is dropped. On open the log is scanned to rebuild the index and a torn tail is cut off.
+ * <p>
+ * New ids continue after the highest id ever written. When that task has been deleted, compaction keeps its
+ * delete record at the head of the new generation so the id is not handed out again after a restart.
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedTaskStore implements TaskStore {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final String PREFIX = "store-";
+    private static final String SUFFIX = ".log";
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(EmbeddedTaskStore.class);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, Location> index = new TreeMap<>();
+
+    @Value("${tasks.store.directory:data/store}")
+    private Path directory;
+
+    @Value("${tasks.store.compaction-ratio:0.5}")
+    private double compactionRatio;
+
+    private FileChannel channel;
+    private long generation;
+    private long size;
+    private long liveBytes;
+    private long nextId = 1;
+
+    public EmbeddedTaskStore() {
+    }
+
+    EmbeddedTaskStore(Path directory, double compactionRatio) {
+        this.directory = directory;
+        this.compactionRatio = compactionRatio;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        generation = listGenerations().stream().mapToLong(Long::longValue).max().orElse(1);
+        Path file = fileOf(generation);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long intact = scan(file);
+        if (intact < channel.size()) {
+            log.warn("[Tasks] Store {} has a torn tail, cutting {} bytes", file, channel.size() - intact);
+            channel.truncate(intact);
+        }
+        size = intact;
+        log.info("[Tasks] Embedded store opened with {} tasks ({} bytes)", index.size(), size);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Task> findById(long id) {
+        lock.readLock().lock();
+        try {
+            Location location = index.get(id);
+            return location == null ? Optional.empty() : Optional.of(read(location));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Long findMinId() {
+        lock.readLock().lock();
+        try {
+            return index.isEmpty() ? null : index.firstKey();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Long findMaxId() {
+        lock.readLock().lock();
+        try {
+            return index.isEmpty() ? null : index.lastKey();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> findRange(long afterId, long upperId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Task> tasks = new ArrayList<>(Math.min(limit, 1024));
+            for (Location location : index.subMap(afterId, false, upperId, true).values()) {
+                if (tasks.size() == limit) break;
+                tasks.add(read(location));
+            }
+            return tasks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Task insert(Task task) {
+        return insertAll(List.of(task)).get(0);
+    }
+
+    @Override
+    public List<Task> insertAll(List<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            for (Task task : tasks) {
+                if (task.getId() == 0) task.setId(nextId++);
+            }
+            append(tasks, List.of());
+            return tasks;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateFields(List<Task> tasks, int fields, int batchSize) {
+        lock.writeLock().lock();
+        try {
+            List<Task> existing = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                if (index.containsKey(task.getId())) existing.add(task);
+            }
+            append(existing, List.of());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> deleteAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            List<Task> deleted = new ArrayList<>(ids.size());
+            List<Long> existing = new ArrayList<>(ids.size());
+            for (long id : ids) {
+                Location location = index.get(id);
+                if (location == null) continue;
+
+                deleted.add(read(location));
+                existing.add(id);
+            }
+            append(List.of(), existing);
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // No secondary index here, every live record is read.
+    @Override
+    public Map<String, Long> countByStatus() {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> counts = new HashMap<>();
+            for (Location location : index.values()) {
+                String status = read(location).getStatus();
+                counts.merge(status == null ? "" : status, 1L, Long::sum);
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.store.compaction-interval-ms:60000}")
+    public void compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            long garbage = size - liveBytes;
+            if (size < MIN_COMPACTION_BYTES || garbage < size * compactionRatio) return;
+            compact();
+        } catch (IOException e) {
+            log.error("[Tasks] Store compaction failed, keeping generation {}", generation, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(List<Task> puts, List<Long> deletes) {
+        if (puts.isEmpty() && deletes.isEmpty()) return;
+
+        List<ByteBuffer> records = new ArrayList<>(puts.size() + deletes.size());
+        for (Task task : puts) {
+            records.add(frame(encode(task)));
+        }
+        for (long id : deletes) {
+            records.add(deleteRecord(id));
+        }
+
+        try {
+            long position = size;
+            for (ByteBuffer record : records) {
+                while (record.hasRemaining()) {
+                    position += channel.write(record, position);
+                }
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not append to the embedded task store", e);
+        }
+
+        long position = size;
+        for (int i = 0; i < records.size(); i++) {
+            int length = records.get(i).limit();
+            if (i < puts.size()) {
+                long id = puts.get(i).getId();
+                forget(index.put(id, new Location(position, length)));
+                liveBytes += length;
+                nextId = Math.max(nextId, id + 1);
+            } else {
+                forget(index.remove(deletes.get(i - puts.size())));
+            }
+            position += length;
+        }
+        size = position;
+    }
+
+    private void forget(Location replaced) {
+        if (replaced != null) liveBytes -= replaced.length;
+    }
+
+    private void compact() throws IOException {
+        long nextGeneration = generation + 1;
+        Path temp = directory.resolve(PREFIX + nextGeneration + SUFFIX + ".tmp");
+        Map<Long, Location> moved = new TreeMap<>();
+        long position = 0;
+        long tombstoneBytes = 0;
+
+        try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long highestId = nextId - 1;
+            if (highestId > 0 && !index.containsKey(highestId)) {
+                ByteBuffer tombstone = deleteRecord(highestId);
+                while (tombstone.hasRemaining()) {
+                    position += target.write(tombstone, position);
+                }
+            }
+            tombstoneBytes = position;
+            for (Map.Entry<Long, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                ByteBuffer record = ByteBuffer.allocate(location.length);
+                readFully(record, location.offset);
+                record.flip();
+                while (record.hasRemaining()) {
+                    position += target.write(record, position);
+                }
+                moved.put(entry.getKey(), new Location(position - location.length, location.length));
+            }
+            target.force(true);
+        }
+
+        Path file = fileOf(nextGeneration);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        channel.close();
+        Files.deleteIfExists(fileOf(generation));
+
+        long before = size;
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        generation = nextGeneration;
+        index.putAll(moved);
+        size = position;
+        liveBytes = position - tombstoneBytes;
+        log.info("[Tasks] Store compacted into generation {}, {} -> {} bytes", generation, before, size);
+    }
+
+    // Rebuilds the index from the log and returns the length of its intact prefix.
+    private long scan(Path file) throws IOException {
+        long position = 0;
+        long fileSize = Files.size(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                int length;
+                byte[] body;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    if (length <= 0 || length > fileSize) break;
+                    body = new byte[length];
+                    in.readFully(body);
+                    checksum = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) break;
+
+                ByteBuffer record = ByteBuffer.wrap(body);
+                byte type = record.get();
+                long id = record.getLong();
+                int recordLength = Integer.BYTES * 2 + length;
+                if (type == PUT) {
+                    forget(index.put(id, new Location(position, recordLength)));
+                    liveBytes += recordLength;
+                } else {
+                    forget(index.remove(id));
+                }
+                nextId = Math.max(nextId, id + 1);
+                position += recordLength;
+            }
+        }
+        return position;
+    }
+
+    private Task read(Location location) {
+        ByteBuffer record = ByteBuffer.allocate(location.length);
+        try {
+            readFully(record, location.offset);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not read the embedded task store", e);
+        }
+        record.flip().position(Integer.BYTES + Byte.BYTES);
+
+        Task task = new Task();
+        task.setId(record.getLong());
+        task.setStartDate(record.getLong());
+        task.setExpiryDate(record.getLong());
+        task.setOwnerName(getString(record));
+        task.setDescription(getString(record));
+        task.setStatus(getString(record));
+        return task;
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) throw new EOFException("Record past the end of the store");
+        }
+    }
+
+    private static ByteBuffer encode(Task task) {
+        byte[] owner = bytes(task.getOwnerName());
+        byte[] description = bytes(task.getDescription());
+        byte[] status = bytes(task.getStatus());
+        int length = Byte.BYTES + Long.BYTES * 3 + stringSize(owner) + stringSize(description) + stringSize(status);
+
+        ByteBuffer body = ByteBuffer.allocate(length);
+        body.put(PUT).putLong(task.getId()).putLong(task.getStartDate()).putLong(task.getExpiryDate());
+        putString(body, owner);
+        putString(body, description);
+        putString(body, status);
+        return body.flip();
+    }
+
+    private static ByteBuffer deleteRecord(long id) {
+        return frame(ByteBuffer.allocate(Byte.BYTES + Long.BYTES).put(DELETE).putLong(id).flip());
+    }
+
+    private static ByteBuffer frame(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES * 2 + body.remaining());
+        record.putInt(body.remaining()).put(body).putInt((int) crc.getValue());
+        return record.flip();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length).put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Path fileOf(long generation) {
+        return directory.resolve(PREFIX + generation + SUFFIX);
+    }
+
+    private List<Long> listGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> name.substring(PREFIX.length(), name.length() - SUFFIX.length()))
+                    .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .toList();
+        }
+    }
+
+    private record Location(long offset, int length) {
+    }
+}
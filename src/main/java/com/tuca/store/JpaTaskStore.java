@@ -0,0 +1,81 @@
+package com.tuca.store;
+
+import com.tuca.model.StatusCount;
+import com.tuca.model.Task;
+import com.tuca.repository.TaskBatchRepository;
+import com.tuca.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@Profile("!embedded")
+public class JpaTaskStore implements TaskStore {
+
+    private final TaskRepository taskRepository;
+    private final TaskBatchRepository taskBatchRepository;
+
+    @Autowired
+    public JpaTaskStore(TaskRepository taskRepository, TaskBatchRepository taskBatchRepository) {
+        this.taskRepository = taskRepository;
+        this.taskBatchRepository = taskBatchRepository;
+    }
+
+    @Override
+    public Optional<Task> findById(long id) {
+        return taskRepository.findById(id);
+    }
+
+    @Override
+    public Long findMinId() {
+        return taskRepository.findMinId();
+    }
+
+    @Override
+    public Long findMaxId() {
+        return taskRepository.findMaxId();
+    }
+
+    @Override
+    public List<Task> findRange(long afterId, long upperId, int limit) {
+        return taskRepository.findRange(afterId, upperId, Limit.of(limit));
+    }
+
+    @Override
+    public Task insert(Task task) {
+        return taskRepository.save(task);
+    }
+
+    @Override
+    public List<Task> insertAll(List<Task> tasks) {
+        return taskRepository.saveAll(tasks);
+    }
+
+    @Override
+    public void updateFields(List<Task> tasks, int fields, int batchSize) {
+        taskBatchRepository.updateFields(tasks, fields, batchSize);
+    }
+
+    @Override
+    public List<Task> deleteAll(Collection<Long> ids) {
+        List<Task> deleted = taskRepository.findAllById(ids);
+        taskRepository.deleteAllByIdInBatch(ids);
+        return deleted;
+    }
+
+    @Override
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> counts = new HashMap<>();
+        for (StatusCount count : taskRepository.countGroupedByStatus()) {
+            counts.merge(count.status() == null ? "" : count.status(), count.count(), Long::sum);
+        }
+        return counts;
+    }
+}
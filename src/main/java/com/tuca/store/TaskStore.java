@@ -0,0 +1,38 @@
+package com.tuca.store;
+
+import com.tuca.model.Task;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Durable home of the tasks behind {@link com.tuca.cache.TaskCache}. The JPA store over MySQL is the default,
+ * the {@code embedded} profile swaps in a single-node file store that needs no database server.
+ */
+public interface TaskStore {
+
+    Optional<Task> findById(long id);
+
+    Long findMinId();
+
+    Long findMaxId();
+
+    // Tasks with afterId < id <= upperId in id order, at most limit of them.
+    List<Task> findRange(long afterId, long upperId, int limit);
+
+    // Assigns the id of a new task and stores it.
+    Task insert(Task task);
+
+    List<Task> insertAll(List<Task> tasks);
+
+    // Writes the given columns of tasks that already exist; stores that keep whole rows may write all of them.
+    void updateFields(List<Task> tasks, int fields, int batchSize);
+
+    // Returns the rows that were deleted, ids that were not stored are skipped.
+    List<Task> deleteAll(Collection<Long> ids);
+
+    // Stored rows per status, a missing status counted under "".
+    Map<String, Long> countByStatus();
+}
@@ -0,0 +1,16 @@
+-- Schema as Hibernate created it before migrations existed. Databases that already have it are baselined past this file.
+CREATE TABLE IF NOT EXISTS task (
+    id          BIGINT       NOT NULL,
+    description VARCHAR(255),
+    expiry_date BIGINT       NOT NULL,
+    owner_name  VARCHAR(255),
+    start_date  BIGINT       NOT NULL,
+    status      VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS task_id (
+    name     VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
@@ -0,0 +1,29 @@
+-- MySQL has no CREATE INDEX IF NOT EXISTS, and ddl-auto may already have created some of these.
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_task_status_expiry ON task (status, expiry_date, id)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'task' AND index_name = 'idx_task_status_expiry');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_task_status_owner ON task (status, owner_name)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'task' AND index_name = 'idx_task_status_owner');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_task_owner ON task (owner_name)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'task' AND index_name = 'idx_task_owner');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_task_expiry ON task (expiry_date)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'task' AND index_name = 'idx_task_expiry');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,22 @@
+-- Nothing queries by owner or by expiry alone any more; these only slowed down every flush.
+
+SET @ddl = (SELECT IF(COUNT(*) > 0, 'DROP INDEX idx_task_status_owner ON task', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'task' AND index_name = 'idx_task_status_owner');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) > 0, 'DROP INDEX idx_task_owner ON task', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'task' AND index_name = 'idx_task_owner');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) > 0, 'DROP INDEX idx_task_expiry ON task', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'task' AND index_name = 'idx_task_expiry');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,34 @@
+package com.tuca.benchmark;
+
+import com.tuca.model.Task;
+import com.tuca.repository.TaskRepository;
+import com.tuca.store.TaskStore;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+
+/**
+ * Headless entry point for the benchmarks, run with {@code ./gradlew benchmark} and {@code -Pembedded} for the
+ * file store. Only the stores, the repositories and the benchmarks are started: no Swing window, Kafka consumer
+ * or task cache.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@AutoConfigurationPackage(basePackageClasses = {Task.class, TaskRepository.class})
+@ComponentScan(basePackageClasses = {TaskStore.class, TaskRepository.class, BenchmarkApplication.class})
+public class BenchmarkApplication {
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .profiles("benchmark")
+                .web(WebApplicationType.NONE)
+                .headless(true)
+                .run(args);
+        System.exit(SpringApplication.exit(context));
+    }
+}
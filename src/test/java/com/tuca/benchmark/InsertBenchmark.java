@@ -0,0 +1,76 @@
+package com.tuca.benchmark;
+
+import com.tuca.model.Task;
+import com.tuca.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insert throughput, started through {@link BenchmarkApplication}. Row by row saves stand in for what every
+ * insert cost under IDENTITY; batched saveAll is what the pooled allocator enables. Rows are deleted afterwards.
+ */
+@Component
+@Profile("benchmark & !embedded")
+public class InsertBenchmark implements CommandLineRunner {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(InsertBenchmark.class);
+
+    private final TaskRepository taskRepository;
+
+    @Value("${tasks.benchmark.rows:10000}")
+    private int rows;
+
+    @Autowired
+    public InsertBenchmark(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        List<Long> created = new ArrayList<>(rows * 2);
+        try {
+            long start = System.nanoTime();
+            for (Task task : newTasks("row")) {
+                created.add(taskRepository.save(task).getId());
+            }
+            report("row by row", System.nanoTime() - start);
+            log.info("[Tasks] Benchmark row by row only approximates IDENTITY: one insert and commit per row, but ids still come from the pooled allocator");
+
+            start = System.nanoTime();
+            List<Task> tasks = newTasks("batch");
+            for (int from = 0; from < tasks.size(); from += CHUNK_SIZE) {
+                taskRepository.saveAll(tasks.subList(from, Math.min(from + CHUNK_SIZE, tasks.size())))
+                        .forEach(task -> created.add(task.getId()));
+            }
+            report("batched", System.nanoTime() - start);
+        } finally {
+            for (int from = 0; from < created.size(); from += CHUNK_SIZE) {
+                taskRepository.deleteAllByIdInBatch(created.subList(from, Math.min(from + CHUNK_SIZE, created.size())));
+            }
+        }
+    }
+
+    private List<Task> newTasks(String mode) {
+        long expiryDate = System.currentTimeMillis() + 86400000L;
+        List<Task> tasks = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            tasks.add(new Task("benchmark " + mode + " " + i, "benchmark", expiryDate));
+        }
+        return tasks;
+    }
+
+    private void report(String mode, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        log.info("[Tasks] Benchmark {}: {} inserts in {} ms ({} rows/s)", mode, rows, elapsedNanos / 1_000_000, Math.round(rows / seconds));
+    }
+}
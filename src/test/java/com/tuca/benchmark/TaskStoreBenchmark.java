@@ -0,0 +1,84 @@
+package com.tuca.benchmark;
+
+import com.tuca.model.Task;
+import com.tuca.model.TaskField;
+import com.tuca.store.TaskStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Throughput of the active {@link TaskStore}, started through {@link BenchmarkApplication}. Run once as is for
+ * MySQL and once with the {@code embedded} profile for the file store to compare the two on the same rows.
+ * Rows are deleted afterwards.
+ */
+@Component
+@Profile("benchmark")
+public class TaskStoreBenchmark implements CommandLineRunner {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(TaskStoreBenchmark.class);
+
+    private final TaskStore taskStore;
+
+    @Value("${tasks.benchmark.rows:10000}")
+    private int rows;
+
+    @Autowired
+    public TaskStoreBenchmark(TaskStore taskStore) {
+        this.taskStore = taskStore;
+    }
+
+    @Override
+    public void run(String... args) {
+        List<Task> created = new ArrayList<>(rows);
+        try {
+            long expiryDate = System.currentTimeMillis() + 86400000L;
+            long start = System.nanoTime();
+            for (int from = 0; from < rows; from += CHUNK_SIZE) {
+                List<Task> chunk = new ArrayList<>(CHUNK_SIZE);
+                for (int i = from; i < Math.min(from + CHUNK_SIZE, rows); i++) {
+                    chunk.add(new Task("benchmark store " + i, "benchmark", expiryDate));
+                }
+                created.addAll(taskStore.insertAll(chunk));
+            }
+            report("insert", rows, System.nanoTime() - start);
+            if (created.isEmpty()) return;
+
+            start = System.nanoTime();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < rows; i++) {
+                taskStore.findById(created.get(random.nextInt(created.size())).getId());
+            }
+            report("lookup", rows, System.nanoTime() - start);
+
+            created.forEach(task -> task.setStatus("Completa"));
+            start = System.nanoTime();
+            for (int from = 0; from < created.size(); from += CHUNK_SIZE) {
+                taskStore.updateFields(created.subList(from, Math.min(from + CHUNK_SIZE, created.size())), TaskField.STATUS.bit(), CHUNK_SIZE);
+            }
+            report("status update", created.size(), System.nanoTime() - start);
+        } finally {
+            long start = System.nanoTime();
+            for (int from = 0; from < created.size(); from += CHUNK_SIZE) {
+                taskStore.deleteAll(created.subList(from, Math.min(from + CHUNK_SIZE, created.size())).stream().map(Task::getId).toList());
+            }
+            report("delete", created.size(), System.nanoTime() - start);
+        }
+    }
+
+    private void report(String operation, int count, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        log.info("[Tasks] Benchmark {} {}: {} ops in {} ms ({} ops/s)", taskStore.getClass().getSimpleName(), operation, count,
+                elapsedNanos / 1_000_000, Math.round(count / seconds));
+    }
+}
@@ -0,0 +1,76 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CacheVersionTest {
+
+    @Test
+    void withIndexesByStatusAndOwner() {
+        CacheVersion version = CacheVersion.EMPTY.with(task(1, "Pendente", "ana")).with(task(2, "pendente", "bia"));
+
+        assertEquals(2, version.size());
+        assertEquals(2, version.countByStatus("PENDENTE"));
+        assertEquals(1, version.countByOwner("ana"));
+        assertEquals(List.of(1L, 2L), ids(version.getByStatus("Pendente")));
+    }
+
+    @Test
+    void updatedTaskMovesBetweenIndexes() {
+        CacheVersion version = CacheVersion.EMPTY.with(task(1, "Pendente", "ana"));
+
+        version = version.with(task(1, "Completa", "bia"));
+
+        assertEquals(0, version.countByStatus("Pendente"));
+        assertEquals(1, version.countByStatus("Completa"));
+        assertEquals(0, version.countByOwner("ana"));
+        assertEquals(1, version.countByOwner("bia"));
+        assertEquals(1, version.size());
+    }
+
+    @Test
+    void olderVersionsStayIntact() {
+        Task pending = task(1, "Pendente", "ana");
+        CacheVersion first = CacheVersion.EMPTY.with(pending).with(task(2, "Pendente", "ana"));
+
+        CacheVersion second = first.with(task(1, "Completa", "ana")).without(2);
+
+        assertSame(pending, first.getByID(1));
+        assertEquals(2, first.countByStatus("Pendente"));
+        assertEquals(0, first.countByStatus("Completa"));
+        assertEquals(2, first.countByOwner("ana"));
+
+        assertEquals("Completa", second.getByID(1).getStatus());
+        assertNull(second.getByID(2));
+        assertEquals(0, second.countByStatus("Pendente"));
+        assertEquals(1, second.countByOwner("ana"));
+        assertEquals(0, CacheVersion.EMPTY.size());
+    }
+
+    @Test
+    void noOpWritesKeepTheVersion() {
+        Task task = task(1, "Pendente", "ana");
+        CacheVersion version = CacheVersion.EMPTY.with(task);
+
+        assertSame(version, version.with(task));
+        assertSame(version, version.without(99));
+    }
+
+    private static Task task(long id, String status, String owner) {
+        Task task = new Task();
+        task.setId(id);
+        task.setStatus(status);
+        task.setOwnerName(owner);
+        return task;
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
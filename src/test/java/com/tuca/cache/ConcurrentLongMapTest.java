@@ -0,0 +1,109 @@
+package com.tuca.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentLongMapTest {
+
+    @Test
+    void putReturnsThePreviousValue() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+
+        assertNull(map.put(1, "a"));
+        assertEquals("a", map.put(1, "b"));
+        assertEquals("b", map.get(1));
+        assertTrue(map.containsKey(1));
+        assertEquals("b", map.remove(1));
+        assertNull(map.remove(1));
+        assertFalse(map.containsKey(1));
+        assertThrows(IllegalArgumentException.class, () -> map.put(2, null));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(19);
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) > 0) {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void concurrentWritersAndReadersSeeConsistentValues() throws Exception {
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>();
+        int writers = 4;
+        int keysPerWriter = 20_000;
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    Random random = new Random();
+                    while (!done.get()) {
+                        long key = random.nextInt(writers * keysPerWriter);
+                        Long value = map.get(key);
+                        // Each key only ever maps to itself, so a torn read shows up as a wrong value.
+                        if (value != null && value != key) throw new AssertionError("Key " + key + " read " + value);
+                    }
+                    return null;
+                }));
+            }
+
+            List<Future<?>> writes = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                long from = (long) w * keysPerWriter;
+                writes.add(executor.submit(() -> {
+                    for (long key = from; key < from + keysPerWriter; key++) {
+                        map.put(key, key);
+                    }
+                    for (long key = from; key < from + keysPerWriter; key += 2) {
+                        map.remove(key);
+                    }
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(writers * keysPerWriter / 2, map.size());
+        for (long key = 1; key < (long) writers * keysPerWriter; key += 2) {
+            assertEquals(key, map.get(key).longValue());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tuca.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTest {
+
+    @Test
+    void addsAndRemovesKeys() {
+        LongHashSet set = new LongHashSet();
+
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.add(0));
+        assertTrue(set.add(-7));
+        assertTrue(set.contains(0));
+        assertEquals(3, set.size());
+
+        assertTrue(set.remove(42));
+        assertFalse(set.remove(42));
+        assertFalse(set.contains(42));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void keepsEveryKeyAcrossResizes() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 0; key < 10_000; key++) {
+            set.add(key * 31);
+        }
+
+        assertEquals(10_000, set.size());
+        for (long key = 0; key < 10_000; key++) {
+            assertTrue(set.contains(key * 31));
+        }
+        assertFalse(set.contains(1));
+    }
+
+    @Test
+    void removalKeepsProbeChainsReachable() {
+        // Six keys in the first eight slots, so probe chains form and removals have to shift entries back.
+        LongHashSet set = new LongHashSet();
+        for (long key = 1; key <= 6; key++) {
+            set.add(key);
+        }
+        set.remove(1);
+        set.remove(4);
+
+        assertArrayEquals(new long[]{2, 3, 5, 6}, set.sortedKeys());
+    }
+
+    @Test
+    void matchesHashSetUnderRandomOperations() {
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), set.add(key));
+            } else {
+                assertEquals(expected.remove(key), set.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).sorted().toArray(), set.sortedKeys());
+    }
+}
@@ -0,0 +1,83 @@
+package com.tuca.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntMapTest {
+
+    @Test
+    void combinesBitsPerKey() {
+        LongIntMap map = new LongIntMap();
+
+        map.or(5, 0b001);
+        map.or(5, 0b100);
+        map.or(9, 0b010);
+
+        assertEquals(0b101, map.get(5));
+        assertEquals(0b010, map.get(9));
+        assertEquals(0, map.get(6));
+        assertTrue(map.containsKey(9));
+        assertFalse(map.containsKey(6));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void removeClearsTheValue() {
+        LongIntMap map = new LongIntMap();
+        map.or(5, 0b111);
+
+        assertTrue(map.remove(5));
+        assertFalse(map.remove(5));
+        assertTrue(map.isEmpty());
+
+        map.or(5, 0b001);
+        assertEquals(0b001, map.get(5));
+    }
+
+    @Test
+    void valuesFollowTheirKeysAcrossResizesAndShifts() {
+        LongIntMap map = new LongIntMap();
+        for (long key = 0; key < 5_000; key++) {
+            map.or(key, (int) key);
+        }
+        for (long key = 0; key < 5_000; key += 2) {
+            map.remove(key);
+        }
+
+        assertEquals(2_500, map.size());
+        for (long key = 1; key < 5_000; key += 2) {
+            assertEquals((int) key, map.get(key));
+        }
+        assertEquals(1L, map.sortedKeys()[0]);
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(11);
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(1_000) - 500;
+            if (random.nextInt(3) > 0) {
+                int bits = 1 << random.nextInt(8);
+                map.or(key, bits);
+                expected.merge(key, bits, (a, b) -> a | b);
+            } else {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, bits) -> assertEquals(bits.intValue(), map.get(key)));
+        assertArrayEquals(expected.keySet().stream().mapToLong(Long::longValue).sorted().toArray(), map.sortedKeys());
+    }
+}
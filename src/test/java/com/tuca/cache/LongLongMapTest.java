@@ -0,0 +1,61 @@
+package com.tuca.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongMapTest {
+
+    @Test
+    void raiseOnlyMovesUp() {
+        LongLongMap map = new LongLongMap();
+
+        assertTrue(map.raise(1, 10));
+        assertFalse(map.raise(1, 10));
+        assertFalse(map.raise(1, 3));
+        assertTrue(map.raise(1, 11));
+
+        assertEquals(11, map.get(1, -1));
+        assertEquals(-1, map.get(2, -1));
+    }
+
+    @Test
+    void removedKeysStartOver() {
+        LongLongMap map = new LongLongMap();
+        map.raise(1, 10);
+
+        assertTrue(map.remove(1));
+        assertFalse(map.remove(1));
+        assertEquals(Long.MIN_VALUE, map.get(1, Long.MIN_VALUE));
+        assertTrue(map.raise(1, 3));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(13);
+        LongLongMap map = new LongLongMap();
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextLong() % 1_500;
+            if (random.nextInt(4) > 0) {
+                long value = random.nextInt(1_000_000);
+                Long previous = expected.get(key);
+                boolean raised = previous == null || value > previous;
+                if (raised) expected.put(key, value);
+                assertEquals(raised, map.raise(key, value));
+            } else {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value.longValue(), map.get(key, -1)));
+    }
+}
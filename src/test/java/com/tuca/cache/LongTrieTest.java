@@ -0,0 +1,104 @@
+package com.tuca.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongTrieTest {
+
+    @Test
+    void putsReplacesAndRemoves() {
+        LongTrie<String> trie = LongTrie.<String>empty().put(1, "a").put(2, "b");
+
+        trie = trie.put(1, "c");
+        assertEquals("c", trie.get(1));
+        assertEquals(2, trie.size());
+
+        trie = trie.remove(1);
+        assertNull(trie.get(1));
+        assertEquals("b", trie.get(2));
+        assertEquals(1, trie.size());
+
+        assertTrue(trie.remove(2).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> LongTrie.empty().put(1, null));
+    }
+
+    @Test
+    void unchangedTrieIsReturnedAsIs() {
+        LongTrie<String> trie = LongTrie.<String>empty().put(1, "a");
+
+        assertSame(trie, trie.remove(99));
+        assertSame(LongTrie.empty(), LongTrie.empty().remove(1));
+    }
+
+    @Test
+    void olderVersionsStayIntact() {
+        LongTrie<String> base = LongTrie.empty();
+        for (long key = 0; key < 1_000; key++) {
+            base = base.put(key, "v" + key);
+        }
+
+        LongTrie<String> updated = base.put(500, "changed").remove(10).put(5_000, "new");
+
+        assertEquals("v500", base.get(500));
+        assertEquals("v10", base.get(10));
+        assertNull(base.get(5_000));
+        assertEquals(1_000, base.size());
+
+        assertEquals("changed", updated.get(500));
+        assertNull(updated.get(10));
+        assertEquals("new", updated.get(5_000));
+        assertEquals(1_000, updated.size());
+    }
+
+    @Test
+    void keysSharingLowBitsDoNotCollide() {
+        // Keys that differ only in their high bits, plus the extremes, must still land on distinct leaves.
+        long[] keys = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE, 1L << 40, 1L << 41, 3L << 40, (1L << 62) + 1};
+        LongTrie<Long> trie = LongTrie.empty();
+        for (long key : keys) {
+            trie = trie.put(key, key);
+        }
+
+        assertEquals(keys.length, trie.size());
+        for (long key : keys) {
+            assertEquals(key, trie.get(key).longValue());
+        }
+        for (long key : keys) {
+            trie = trie.remove(key);
+        }
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(17);
+        LongTrie<Long> trie = LongTrie.empty();
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(3_000);
+            if (random.nextInt(3) > 0) {
+                trie = trie.put(key, (long) i);
+                expected.put(key, (long) i);
+            } else {
+                trie = trie.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), trie.size());
+        assertEquals(expected.size(), trie.values().size());
+        for (long key = 0; key < 3_000; key++) {
+            assertEquals(expected.get(key), trie.get(key));
+        }
+    }
+}
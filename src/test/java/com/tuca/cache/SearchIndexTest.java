@@ -0,0 +1,73 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class SearchIndexTest {
+
+    private final SearchIndex index = new SearchIndex();
+
+    @Test
+    void newestMatchesComeFirst() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(task(id, "Revisar contrato", "Ana"));
+        }
+
+        assertArrayEquals(new long[]{5, 4, 3}, index.search("contrato", 3, id -> true));
+        assertArrayEquals(new long[]{5, 4}, index.search("rev", 2, id -> true));
+    }
+
+    @Test
+    void wholeWordsOutrankPrefixesAndInnerMatches() {
+        index.index(task(1, "Pagar boleto", "Ana"));
+        index.index(task(2, "Repagar fornecedor", "Ana"));
+        index.index(task(3, "Pagaremos amanhã", "Ana"));
+        index.index(task(4, "Pagar aluguel", "Ana"));
+        index.index(task(5, "Repagar banco", "Ana"));
+
+        assertArrayEquals(new long[]{4, 1, 3, 5, 2}, index.search("pagar", 10, id -> true));
+        assertArrayEquals(new long[]{4, 3, 1}, index.search("pag", 3, id -> true));
+    }
+
+    @Test
+    void shortQueriesAreRankedToo() {
+        index.index(task(1, "Ligar para o banco", "Bia"));
+        index.index(task(2, "Acabar relatório", "Bia"));
+        index.index(task(3, "Banco de horas", "Bia"));
+
+        assertArrayEquals(new long[]{3, 1, 2}, index.search("ba", 10, id -> true));
+    }
+
+    @Test
+    void filterAndReindexingAreRespected() {
+        index.index(task(1, "Enviar proposta", "Caio"));
+        index.index(task(2, "Enviar proposta", "Caio"));
+        index.index(task(3, "Enviar proposta", "Caio"));
+
+        assertArrayEquals(new long[]{3, 1}, index.search("proposta", 10, id -> id != 2));
+
+        index.index(task(3, "Arquivar", "Caio"));
+        index.unindex(1);
+        assertArrayEquals(new long[]{2}, index.search("proposta", 10, id -> true));
+    }
+
+    @Test
+    void ownerAndIdAreSearchable() {
+        index.index(task(41, "Atualizar planilha", "Daniela"));
+        index.index(task(42, "Atualizar planilha", "Eduardo"));
+
+        assertArrayEquals(new long[]{42}, index.search("eduardo", 10, id -> true));
+        assertArrayEquals(new long[]{41}, index.search("41", 10, id -> true));
+    }
+
+    private static Task task(long id, String description, String ownerName) {
+        Task task = new Task();
+        task.setId(id);
+        task.setDescription(description);
+        task.setOwnerName(ownerName);
+        task.setStatus("Pendente");
+        return task;
+    }
+}
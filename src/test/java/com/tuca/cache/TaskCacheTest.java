@@ -0,0 +1,209 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+import com.tuca.model.TaskField;
+import com.tuca.store.TaskStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TaskCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final MemoryStore store = new MemoryStore();
+    private final TaskAggregates aggregates = new TaskAggregates();
+    private TaskJournal journal;
+
+    @BeforeEach
+    void openJournal() {
+        journal = new TaskJournal(directory, 1 << 20, 1000);
+    }
+
+    @AfterEach
+    void closeJournal() {
+        journal.close();
+    }
+
+    @Test
+    void loadEvictsLeastRecentlyUsedCompletedTasks() {
+        TaskCache cache = loaded(2, task(1, "Completa"), task(2, "Completa"), task(3, "Pendente"));
+
+        assertNull(cache.peek(1));
+        assertNotNull(cache.peek(2));
+        assertNotNull(cache.peek(3));
+        assertEquals(3, aggregates.total());
+        assertEquals(2, aggregates.count(TaskAggregates.Group.COMPLETE));
+    }
+
+    @Test
+    void replayedFieldOfEvictedTaskIsReadThroughAndFlushed() {
+        TaskCache cache = loaded(2, task(1, "Completa"), task(2, "Completa"), task(3, "Pendente"));
+
+        cache.replay(1, TaskField.STATUS.bit(), task(1, "Pendente"));
+
+        assertEquals("Pendente", cache.peek(1).getStatus());
+        assertEquals("dono 1", cache.peek(1).getOwnerName());
+        assertEquals(TaskField.STATUS.bit(), cache.drainDirty().get(1));
+        assertEquals(3, aggregates.total());
+        assertEquals(1, aggregates.count(TaskAggregates.Group.COMPLETE));
+        assertEquals(2, aggregates.count(TaskAggregates.Group.PENDING));
+    }
+
+    @Test
+    void replayedFullRecordOfEvictedTaskIsCountedOnceAndFlushed() {
+        TaskCache cache = loaded(2, task(1, "Completa"), task(2, "Completa"), task(3, "Pendente"));
+
+        Task replayed = task(1, "Atrasada");
+        replayed.setDescription("outra");
+        cache.replay(1, TaskField.ALL, replayed);
+
+        assertEquals("outra", cache.peek(1).getDescription());
+        assertEquals(TaskField.ALL, cache.drainDirty().get(1));
+        assertEquals(3, aggregates.total());
+        assertEquals(1, aggregates.count(TaskAggregates.Group.COMPLETE));
+        assertEquals(1, aggregates.count(TaskAggregates.Group.OVERDUE));
+    }
+
+    @Test
+    void replayedTasksStayCachedUntilFlushed() {
+        TaskCache cache = loaded(2, task(1, "Completa"), task(2, "Completa"), task(3, "Pendente"));
+
+        cache.replay(1, TaskField.DESCRIPTION.bit(), task(1, "Completa"));
+        cache.replay(2, TaskField.DESCRIPTION.bit(), task(2, "Completa"));
+
+        assertNotNull(cache.peek(1));
+        assertNotNull(cache.peek(2));
+        assertEquals(2, cache.dirtyCount());
+    }
+
+    @Test
+    void replayedFieldOfUnknownTaskIsSkipped() {
+        TaskCache cache = loaded(2, task(1, "Pendente"));
+
+        cache.replay(9, TaskField.STATUS.bit(), task(9, "Completa"));
+
+        assertNull(cache.peek(9));
+        assertFalse(cache.drainDirty().containsKey(9));
+        assertEquals(1, aggregates.total());
+    }
+
+    @Test
+    void recountCoversTasksMissingFromTheCache() {
+        TaskCache cache = loaded(2, task(1, "Pendente"), task(2, "Atrasada"));
+        store.rows.put(3L, task(3, "Completa"));
+        store.rows.put(4L, task(4, "Completa"));
+
+        cache.recount();
+
+        assertEquals(4, aggregates.total());
+        assertEquals(2, aggregates.count(TaskAggregates.Group.COMPLETE));
+        assertEquals(1, aggregates.count(TaskAggregates.Group.PENDING));
+        assertEquals(1, aggregates.count(TaskAggregates.Group.OVERDUE));
+
+        cache.save(task(1, "Completa"));
+        assertEquals(3, aggregates.count(TaskAggregates.Group.COMPLETE));
+        assertEquals(4, aggregates.total());
+    }
+
+    private TaskCache loaded(int maxEntries, Task... tasks) {
+        for (Task task : tasks) {
+            store.rows.put(task.getId(), task);
+        }
+        TaskCache cache = new TaskCache(store, aggregates, journal, maxEntries);
+        cache.loadAll(List.of(tasks));
+        return cache;
+    }
+
+    private static Task task(long id, String status) {
+        Task task = new Task();
+        task.setId(id);
+        task.setOwnerName("dono " + id);
+        task.setDescription("tarefa " + id);
+        task.setStatus(status);
+        return task;
+    }
+
+    private static final class MemoryStore implements TaskStore {
+
+        private final TreeMap<Long, Task> rows = new TreeMap<>();
+
+        @Override
+        public Optional<Task> findById(long id) {
+            Task row = rows.get(id);
+            return row == null ? Optional.empty() : Optional.of(row.copy());
+        }
+
+        @Override
+        public Long findMinId() {
+            return rows.isEmpty() ? null : rows.firstKey();
+        }
+
+        @Override
+        public Long findMaxId() {
+            return rows.isEmpty() ? null : rows.lastKey();
+        }
+
+        @Override
+        public List<Task> findRange(long afterId, long upperId, int limit) {
+            List<Task> range = new ArrayList<>();
+            for (Task row : rows.subMap(afterId, false, upperId, true).values()) {
+                if (range.size() == limit) break;
+                range.add(row.copy());
+            }
+            return range;
+        }
+
+        @Override
+        public Task insert(Task task) {
+            rows.put(task.getId(), task.copy());
+            return task;
+        }
+
+        @Override
+        public List<Task> insertAll(List<Task> tasks) {
+            tasks.forEach(this::insert);
+            return tasks;
+        }
+
+        @Override
+        public void updateFields(List<Task> tasks, int fields, int batchSize) {
+            tasks.forEach(this::insert);
+        }
+
+        @Override
+        public List<Task> deleteAll(Collection<Long> ids) {
+            List<Task> deleted = new ArrayList<>();
+            for (long id : ids) {
+                Task row = rows.remove(id);
+                if (row != null) deleted.add(row);
+            }
+            return deleted;
+        }
+
+        @Override
+        public Map<String, Long> countByStatus() {
+            Map<String, Long> counts = new HashMap<>();
+            for (Task row : rows.values()) {
+                counts.merge(row.getStatus() == null ? "" : row.getStatus(), 1L, Long::sum);
+            }
+            return counts;
+        }
+    }
+}
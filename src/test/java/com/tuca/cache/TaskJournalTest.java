@@ -0,0 +1,180 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+import com.tuca.model.TaskField;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskJournalTest {
+
+    // Fits two status records, so every other append rolls a new segment. LSNs start at 1 and each test task
+    // takes the id of the LSN it is appended at.
+    private static final long SMALL_SEGMENT = 64;
+    private static final long LARGE_SEGMENT = 1 << 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysPutsAndDeletesInOrder() {
+        TaskJournal journal = journal(LARGE_SEGMENT);
+        journal.appendPut(task(1, "Pendente"), TaskField.ALL);
+        journal.appendPut(task(1, "Completa"), TaskField.STATUS.bit());
+        journal.appendDelete(2);
+        journal.close();
+
+        List<String> replayed = replay(journal(LARGE_SEGMENT));
+
+        assertEquals(List.of("put 1 31 Pendente", "put 1 16 Completa", "delete 2"), replayed);
+    }
+
+    @Test
+    void truncatedTailIsDroppedAndAppendsContinue() throws IOException {
+        TaskJournal journal = journal(LARGE_SEGMENT);
+        for (int i = 1; i <= 3; i++) {
+            journal.appendPut(task(i, "Status " + i), TaskField.STATUS.bit());
+        }
+        journal.close();
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        TaskJournal reopened = journal(LARGE_SEGMENT);
+        assertEquals(List.of("put 1 16 Status 1", "put 2 16 Status 2"), replay(reopened));
+        assertEquals(2, reopened.lastLsn());
+
+        reopened.appendPut(task(3, "Depois"), TaskField.STATUS.bit());
+        reopened.close();
+
+        assertEquals(List.of("put 1 16 Status 1", "put 2 16 Status 2", "put 3 16 Depois"), replay(journal(LARGE_SEGMENT)));
+    }
+
+    @Test
+    void recordWithABadChecksumEndsItsSegment() throws IOException {
+        TaskJournal journal = journal(LARGE_SEGMENT);
+        for (int i = 1; i <= 3; i++) {
+            journal.appendPut(task(i, "Status " + i), TaskField.STATUS.bit());
+        }
+        journal.close();
+        Path segment = segments().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        int recordSize = bytes.length / 3;
+        bytes[recordSize + recordSize / 2] ^= 0x5A;
+        Files.write(segment, bytes);
+
+        assertEquals(List.of("put 1 16 Status 1"), replay(journal(LARGE_SEGMENT)));
+    }
+
+    @Test
+    void rollsSegmentsAndReplaysAcrossThem() {
+        TaskJournal journal = journal(SMALL_SEGMENT);
+        List<String> expected = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            journal.appendPut(task(i, "Completa"), TaskField.STATUS.bit());
+            expected.add("put " + i + " 16 Completa");
+        }
+        journal.close();
+
+        assertEquals(List.of(1L, 3L, 5L, 7L, 9L), firstLsns());
+        assertEquals(expected, replay(journal(SMALL_SEGMENT)));
+    }
+
+    @Test
+    void checkpointsDeleteSegmentsBelowBothMarks() {
+        TaskJournal journal = journal(SMALL_SEGMENT);
+        for (int i = 1; i <= 10; i++) {
+            journal.appendPut(task(i, "Completa"), TaskField.STATUS.bit());
+        }
+
+        // The segment holding LSN 4, the first record past the older mark, has to stay.
+        journal.markFlushed(5);
+        journal.markSnapshot(3);
+        assertEquals(List.of(3L, 5L, 7L, 9L), firstLsns());
+
+        journal.markSnapshot(7);
+        assertEquals(List.of(5L, 7L, 9L), firstLsns());
+        journal.close();
+
+        List<String> fromFlush = List.of("put 6 16 Completa", "put 7 16 Completa", "put 8 16 Completa", "put 9 16 Completa",
+                "put 10 16 Completa");
+        assertEquals(fromFlush, replay(journal(SMALL_SEGMENT)));
+    }
+
+    @Test
+    void restoreReplaysFromTheFlushWhenItIsOlderThanTheSnapshot() {
+        TaskJournal journal = journal(LARGE_SEGMENT);
+        for (int i = 1; i <= 6; i++) {
+            journal.appendPut(task(i, "Completa"), TaskField.STATUS.bit());
+        }
+        journal.markFlushed(2);
+        journal.markSnapshot(4);
+        journal.close();
+
+        List<String> replayed = new ArrayList<>();
+        journal(LARGE_SEGMENT).replayAfter(4, recorder(replayed));
+
+        assertEquals(List.of("put 3 16 Completa", "put 4 16 Completa", "put 5 16 Completa", "put 6 16 Completa"), replayed);
+    }
+
+    private TaskJournal journal(long segmentBytes) {
+        return new TaskJournal(directory, segmentBytes, 10);
+    }
+
+    private static List<String> replay(TaskJournal journal) {
+        List<String> replayed = new ArrayList<>();
+        journal.replay(recorder(replayed));
+        return replayed;
+    }
+
+    private static TaskJournal.Replayer recorder(List<String> replayed) {
+        return new TaskJournal.Replayer() {
+            @Override
+            public void put(long taskID, int fields, Task values) {
+                replayed.add("put " + taskID + " " + fields + " " + values.getStatus());
+            }
+
+            @Override
+            public void delete(long taskID) {
+                replayed.add("delete " + taskID);
+            }
+        };
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("journal-")).sorted().toList();
+        }
+    }
+
+    private List<Long> firstLsns() {
+        try {
+            return segments().stream()
+                    .map(file -> file.getFileName().toString().replace("journal-", "").replace(".log", ""))
+                    .map(Long::parseLong)
+                    .toList();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Task task(long id, String status) {
+        Task task = new Task();
+        task.setId(id);
+        task.setStatus(status);
+        task.setOwnerName("ana");
+        task.setDescription("Tarefa " + id);
+        return task;
+    }
+}
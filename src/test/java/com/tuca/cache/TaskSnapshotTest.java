@@ -0,0 +1,130 @@
+package com.tuca.cache;
+
+import com.tuca.model.Task;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskSnapshotTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("swing-topic", 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresTasksOffsetsAndJournalPosition() throws IOException {
+        new TaskSnapshot(directory).write(List.of(task(1, "Pendente"), task(2, null)), Map.of(PARTITION, 42L), 17);
+
+        TaskSnapshot snapshot = new TaskSnapshot(directory);
+        List<Task> restored = new ArrayList<>();
+
+        assertTrue(snapshot.restore(restored::add));
+        assertEquals(List.of("1 Pendente", "2 null"), describe(restored));
+        assertEquals("Tarefa 1", restored.get(0).getDescription());
+        assertEquals(1_000L, restored.get(0).getExpiryDate());
+        assertEquals(Map.of(PARTITION, 42L), snapshot.getRestoredOffsets());
+        assertEquals(17, snapshot.getRestoredLsn());
+    }
+
+    @Test
+    void restoresMultiByteAndUnpairedSurrogateText() throws IOException {
+        Task accented = task(1, "Concluída");
+        accented.setDescription("Revisão 📅 prazo");
+        Task broken = task(2, "Pendente");
+        broken.setDescription("sem par \uD83D fim \uDC00");
+        new TaskSnapshot(directory).write(List.of(accented, broken), Map.of(), 3);
+
+        List<Task> restored = new ArrayList<>();
+        assertTrue(new TaskSnapshot(directory).restore(restored::add));
+        assertEquals(List.of("1 Concluída", "2 Pendente"), describe(restored));
+        assertEquals("Revisão 📅 prazo", restored.get(0).getDescription());
+        assertEquals("sem par ? fim ?", restored.get(1).getDescription());
+    }
+
+    @Test
+    void newerGenerationReplacesTheOlderOne() throws IOException {
+        TaskSnapshot snapshot = new TaskSnapshot(directory);
+        snapshot.write(List.of(task(1, "Pendente")), Map.of(), 1);
+        snapshot.write(List.of(task(1, "Completa")), Map.of(), 2);
+
+        assertEquals(List.of(directory.resolve("tasks-2.snapshot")), snapshots());
+        List<Task> restored = new ArrayList<>();
+        assertTrue(new TaskSnapshot(directory).restore(restored::add));
+        assertEquals(List.of("1 Completa"), describe(restored));
+    }
+
+    @Test
+    void corruptSnapshotFallsBackToTheOlderGeneration() throws IOException {
+        TaskSnapshot snapshot = new TaskSnapshot(directory);
+        snapshot.write(List.of(task(1, "Pendente")), Map.of(PARTITION, 5L), 3);
+        byte[] older = Files.readAllBytes(directory.resolve("tasks-1.snapshot"));
+        snapshot.write(List.of(task(1, "Completa")), Map.of(PARTITION, 9L), 6);
+        // The older generation is gone after a write, put it back to see the restore skip past the corrupt one.
+        Files.write(directory.resolve("tasks-1.snapshot"), older);
+        flipByte(directory.resolve("tasks-2.snapshot"));
+
+        TaskSnapshot restoring = new TaskSnapshot(directory);
+        List<Task> restored = new ArrayList<>();
+
+        assertTrue(restoring.restore(restored::add));
+        assertEquals(List.of("1 Pendente"), describe(restored));
+        assertEquals(Map.of(PARTITION, 5L), restoring.getRestoredOffsets());
+        assertEquals(3, restoring.getRestoredLsn());
+    }
+
+    @Test
+    void rejectsCorruptAndTruncatedSnapshots() throws IOException {
+        new TaskSnapshot(directory).write(List.of(task(1, "Pendente"), task(2, "Completa")), Map.of(), 1);
+        Path file = directory.resolve("tasks-1.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+
+        flipByte(file);
+        List<Task> restored = new ArrayList<>();
+        assertFalse(new TaskSnapshot(directory).restore(restored::add));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertFalse(new TaskSnapshot(directory).restore(restored::add));
+        assertTrue(restored.isEmpty());
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".snapshot")).sorted().toList();
+        }
+    }
+
+    private static void flipByte(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(task -> task.getId() + " " + task.getStatus()).toList();
+    }
+
+    private static Task task(long id, String status) {
+        Task task = new Task();
+        task.setId(id);
+        task.setStatus(status);
+        task.setOwnerName("ana");
+        task.setDescription("Tarefa " + id);
+        task.setStartDate(500L);
+        task.setExpiryDate(1_000L);
+        return task;
+    }
+}
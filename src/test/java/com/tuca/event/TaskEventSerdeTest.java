@@ -0,0 +1,119 @@
+package com.tuca.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TaskEventSerdeTest {
+
+    private final TaskEventSerializer binary = new TaskEventSerializer();
+    private final TaskEventSerializer json = new TaskEventSerializer(true);
+    private final TaskEventDeserializer deserializer = new TaskEventDeserializer();
+
+    @Test
+    void updateDescriptionRoundTrips() {
+        assertRoundTrip(new TaskEvent.TaskChange(EventType.UPDATE_DESCRIPTION, 7, "Revisar relatório", 11, 3));
+    }
+
+    @Test
+    void updateStatusRoundTrips() {
+        assertRoundTrip(new TaskEvent.TaskChange(EventType.UPDATE_STATUS, 7, "Completa", 11, 4));
+    }
+
+    @Test
+    void createTaskRoundTrips() {
+        assertRoundTrip(new TaskEvent.TaskChange(EventType.CREATE_TASK, 8, null, 11, 5));
+    }
+
+    @Test
+    void deleteTaskRoundTrips() {
+        assertRoundTrip(new TaskEvent.TaskChange(EventType.DELETE_TASK, Long.MAX_VALUE, null, -11, Long.MAX_VALUE));
+    }
+
+    @Test
+    void bulkUpdateStatusRoundTrips() {
+        assertRoundTrip(new TaskEvent.BulkChange(EventType.BULK_UPDATE_STATUS, new long[]{1, 2, 3}, "Pendente", 11, 6));
+    }
+
+    @Test
+    void bulkDeleteRoundTrips() {
+        assertRoundTrip(new TaskEvent.BulkChange(EventType.BULK_DELETE, new long[0], null, 11, 7));
+    }
+
+    @Test
+    void closingProgramRoundTrips() {
+        assertRoundTrip(new TaskEvent.Signal(EventType.CLOSING_PROGRAM));
+    }
+
+    @Test
+    void readsLegacyJsonAsUnstamped() {
+        TaskEvent change = read("{\"event\":\"UPDATE_STATUS\",\"taskID\":5,\"newValue\":\"Completa\"}");
+        assertEvent(new TaskEvent.TaskChange(EventType.UPDATE_STATUS, 5, "Completa", 0, 0), change);
+
+        TaskEvent delete = read("{\"event\":\"DELETE_TASK\",\"taskID\":6}");
+        assertEvent(new TaskEvent.TaskChange(EventType.DELETE_TASK, 6, null, 0, 0), delete);
+
+        TaskEvent bulk = read("{\"event\":\"BULK_DELETE\",\"taskIDs\":[1,2]}");
+        assertEvent(new TaskEvent.BulkChange(EventType.BULK_DELETE, new long[]{1, 2}, null, 0, 0), bulk);
+
+        assertEvent(new TaskEvent.Signal(EventType.CLOSING_PROGRAM), read("{\"event\":\"CLOSING_PROGRAM\"}"));
+    }
+
+    @Test
+    void readsUnstampedVersionOne() {
+        byte[] value = "Pendente".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(2 + Long.BYTES + Integer.BYTES + value.length)
+                .put((byte) 1).put(EventType.UPDATE_STATUS.getCode())
+                .putLong(9).putInt(value.length).put(value);
+
+        TaskEvent event = deserializer.deserialize("swing-topic", payload.array());
+
+        assertEvent(new TaskEvent.TaskChange(EventType.UPDATE_STATUS, 9, "Pendente", 0, 0), event);
+    }
+
+    @Test
+    void unreadablePayloadsComeBackNull() {
+        byte[] valid = binary.serialize("swing-topic", new TaskEvent.TaskChange(EventType.UPDATE_STATUS, 7, "Completa", 11, 4));
+
+        assertNull(deserializer.deserialize("swing-topic", Arrays.copyOf(valid, valid.length - 3)));
+        assertNull(deserializer.deserialize("swing-topic", new byte[]{TaskEventSerializer.VERSION + 1, 1}));
+        assertNull(deserializer.deserialize("swing-topic", new byte[]{TaskEventSerializer.VERSION, 99}));
+        assertNull(deserializer.deserialize("swing-topic", new byte[0]));
+        assertNull(read("{\"event\":\"NOT_AN_EVENT\",\"taskID\":1}"));
+
+        ByteBuffer hugeCount = ByteBuffer.allocate(2 + Long.BYTES * 2 + Integer.BYTES)
+                .put(TaskEventSerializer.VERSION).put(EventType.BULK_DELETE.getCode())
+                .putLong(11).putLong(1).putInt(Integer.MAX_VALUE);
+        assertNull(deserializer.deserialize("swing-topic", hugeCount.array()));
+    }
+
+    private void assertRoundTrip(TaskEvent event) {
+        assertEvent(event, deserializer.deserialize("swing-topic", binary.serialize("swing-topic", event)));
+        assertEvent(event, deserializer.deserialize("swing-topic", json.serialize("swing-topic", event)));
+    }
+
+    private TaskEvent read(String payload) {
+        return deserializer.deserialize("swing-topic", payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Records compare arrays by reference, so bulk changes are checked field by field.
+    private static void assertEvent(TaskEvent expected, TaskEvent actual) {
+        if (expected instanceof TaskEvent.BulkChange bulk) {
+            TaskEvent.BulkChange read = assertInstanceOf(TaskEvent.BulkChange.class, actual, "Expected a bulk change");
+            assertEquals(bulk.type(), read.type());
+            assertArrayEquals(bulk.taskIDs(), read.taskIDs());
+            assertEquals(bulk.newValue(), read.newValue());
+            assertEquals(bulk.producerId(), read.producerId());
+            assertEquals(bulk.sequence(), read.sequence());
+            return;
+        }
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,118 @@
+package com.tuca.service;
+
+import com.tuca.event.EventType;
+import com.tuca.event.TaskEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppliedSequencesTest {
+
+    private static final long PRODUCER = 7;
+
+    private final AppliedSequences sequences = new AppliedSequences();
+
+    @Test
+    void dropsRedeliveredAndOlderChanges() {
+        TaskEvent.TaskChange change = change(EventType.UPDATE_STATUS, 1, 5);
+        assertTrue(sequences.accept(change, false));
+        applied(change);
+
+        assertFalse(sequences.accept(change, false));
+        assertFalse(sequences.accept(change(EventType.UPDATE_DESCRIPTION, 1, 4), false));
+        assertTrue(sequences.accept(change(EventType.UPDATE_DESCRIPTION, 1, 6), false));
+        assertTrue(sequences.accept(change(EventType.UPDATE_STATUS, 2, 1), false));
+    }
+
+    @Test
+    void retryArrivingAfterNewerUpdateIsDropped() {
+        TaskEvent.TaskChange failed = change(EventType.UPDATE_STATUS, 1, 3);
+        assertTrue(sequences.accept(failed, false));
+
+        // The failed event went to the retry topic, meanwhile a newer update of the task is applied.
+        TaskEvent.TaskChange newer = change(EventType.UPDATE_STATUS, 1, 4);
+        assertTrue(sequences.accept(newer, false));
+        applied(newer);
+
+        assertFalse(sequences.accept(failed, true));
+    }
+
+    @Test
+    void retryIsAppliedOnce() {
+        TaskEvent.TaskChange retried = change(EventType.UPDATE_DESCRIPTION, 1, 3);
+        assertTrue(sequences.accept(retried, true));
+        applied(retried);
+
+        // Redelivered after a rebalance, before its offset was committed.
+        assertFalse(sequences.accept(retried, true));
+    }
+
+    @Test
+    void retriedDeletesSkipTheCheck() {
+        applied(change(EventType.UPDATE_STATUS, 1, 4));
+
+        assertFalse(sequences.accept(change(EventType.DELETE_TASK, 1, 3), false));
+        assertTrue(sequences.accept(change(EventType.DELETE_TASK, 1, 3), true));
+    }
+
+    @Test
+    void deleteLeavesATombstone() {
+        applied(change(EventType.UPDATE_STATUS, 1, 3));
+        applied(change(EventType.DELETE_TASK, 1, 5));
+
+        // Redelivered or retried updates older than the delete must not reach the missing task.
+        assertFalse(sequences.accept(change(EventType.UPDATE_STATUS, 1, 3), false));
+        assertFalse(sequences.accept(change(EventType.UPDATE_DESCRIPTION, 1, 4), true));
+        assertFalse(sequences.accept(change(EventType.DELETE_TASK, 1, 5), false));
+    }
+
+    @Test
+    void bulkDeleteLeavesTombstones() {
+        sequences.applied(PRODUCER, List.of(1L, 2L), 6);
+
+        TaskEvent.BulkChange bulk = new TaskEvent.BulkChange(EventType.BULK_UPDATE_STATUS, new long[]{1, 2, 3}, "Completa", PRODUCER, 5);
+        assertEquals(List.of(3L), sequences.accept(bulk, false));
+    }
+
+    @Test
+    void bulkChangesAreCheckedPerTask() {
+        applied(change(EventType.UPDATE_STATUS, 1, 5));
+        applied(change(EventType.UPDATE_STATUS, 2, 2));
+
+        TaskEvent.BulkChange bulk = new TaskEvent.BulkChange(EventType.BULK_UPDATE_STATUS, new long[]{1, 2, 3}, "Completa", PRODUCER, 4);
+        assertEquals(List.of(2L, 3L), sequences.accept(bulk, false));
+        assertEquals(List.of(2L, 3L), sequences.accept(bulk, true));
+
+        TaskEvent.BulkChange delete = new TaskEvent.BulkChange(EventType.BULK_DELETE, new long[]{1, 2, 3}, null, PRODUCER, 4);
+        assertEquals(List.of(2L, 3L), sequences.accept(delete, false));
+        assertEquals(List.of(1L, 2L, 3L), sequences.accept(delete, true));
+    }
+
+    @Test
+    void unstampedChangesAreAlwaysAccepted() {
+        TaskEvent.TaskChange change = new TaskEvent.TaskChange(EventType.UPDATE_STATUS, 1, "Completa", 0, 0);
+        sequences.applied(0, List.of(1L), 0);
+
+        assertTrue(sequences.accept(change, false));
+        assertTrue(sequences.accept(change, true));
+    }
+
+    @Test
+    void producersAreTrackedApart() {
+        applied(change(EventType.UPDATE_STATUS, 1, 5));
+
+        assertTrue(sequences.accept(new TaskEvent.TaskChange(EventType.UPDATE_STATUS, 1, "Completa", PRODUCER + 1, 1), false));
+    }
+
+    private void applied(TaskEvent.TaskChange change) {
+        sequences.applied(change.producerId(), List.of(change.taskID()), change.sequence());
+    }
+
+    private static TaskEvent.TaskChange change(EventType type, long taskID, long sequence) {
+        return new TaskEvent.TaskChange(type, taskID, "Completa", PRODUCER, sequence);
+    }
+}
@@ -0,0 +1,80 @@
+package com.tuca.service;
+
+import com.tuca.event.EventType;
+import com.tuca.event.TaskEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventCoalescerTest {
+
+    private final List<ConsumerRecord<String, TaskEvent>> batch = new ArrayList<>();
+
+    @Test
+    void laterUpdateOfTheSameFieldWins() {
+        add(change(EventType.UPDATE_STATUS, 1, "Pendente"));
+        add(change(EventType.UPDATE_STATUS, 1, "Completa"));
+        add(change(EventType.UPDATE_DESCRIPTION, 1, "Revisar"));
+
+        assertEquals(List.of(1L, 2L), effectiveOffsets());
+    }
+
+    @Test
+    void deleteSupersedesEarlierChangesOfTheTask() {
+        add(change(EventType.UPDATE_STATUS, 1, "Completa"));
+        add(change(EventType.UPDATE_DESCRIPTION, 1, "Revisar"));
+        add(change(EventType.DELETE_TASK, 1, null));
+        add(change(EventType.DELETE_TASK, 1, null));
+
+        assertEquals(List.of(3L), effectiveOffsets());
+    }
+
+    @Test
+    void keysAreFoldedApartAndKeepTheirOrder() {
+        add(change(EventType.UPDATE_STATUS, 1, "Pendente"));
+        add(change(EventType.UPDATE_STATUS, 2, "Pendente"));
+        add(change(EventType.UPDATE_STATUS, 1, "Completa"));
+        add(change(EventType.DELETE_TASK, 3, null));
+        add(change(EventType.UPDATE_STATUS, 2, "Atrasada"));
+        add(change(EventType.UPDATE_DESCRIPTION, 3, "Revisar"));
+
+        assertEquals(List.of(2L, 3L, 4L, 5L), effectiveOffsets());
+    }
+
+    @Test
+    void createsAreNeverFolded() {
+        add(change(EventType.CREATE_TASK, 1, null));
+        add(change(EventType.UPDATE_STATUS, 1, "Completa"));
+        add(change(EventType.DELETE_TASK, 1, null));
+
+        assertEquals(List.of(0L, 2L), effectiveOffsets());
+    }
+
+    @Test
+    void nothingIsFoldedAcrossBulkEventsOrSignals() {
+        add(change(EventType.UPDATE_STATUS, 1, "Pendente"));
+        add(new TaskEvent.BulkChange(EventType.BULK_UPDATE_STATUS, new long[]{1, 2}, "Completa", 7, 1));
+        add(change(EventType.UPDATE_STATUS, 1, "Atrasada"));
+        add(new TaskEvent.Signal(EventType.CLOSING_PROGRAM));
+        add(change(EventType.DELETE_TASK, 1, null));
+        add(null);
+
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), effectiveOffsets());
+    }
+
+    private void add(TaskEvent event) {
+        batch.add(new ConsumerRecord<>("swing-topic", 0, batch.size(), null, event));
+    }
+
+    private List<Long> effectiveOffsets() {
+        return EventCoalescer.coalesce(batch).stream().map(ConsumerRecord::offset).toList();
+    }
+
+    private static TaskEvent.TaskChange change(EventType type, long taskID, String newValue) {
+        return new TaskEvent.TaskChange(type, taskID, newValue, 0, 0);
+    }
+}
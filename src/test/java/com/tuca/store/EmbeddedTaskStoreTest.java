@@ -0,0 +1,134 @@
+package com.tuca.store;
+
+import com.tuca.model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedTaskStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private EmbeddedTaskStore store;
+
+    @AfterEach
+    void closeStore() throws IOException {
+        if (store != null) store.close();
+    }
+
+    @Test
+    void reopenRestoresTasksAndContinuesIds() throws IOException {
+        open();
+        store.insertAll(List.of(task("Pendente"), task("Pendente"), task("Pendente")));
+        Task updated = store.findById(2).orElseThrow();
+        updated.setStatus("Completa");
+        store.updateFields(List.of(updated), 0, 100);
+        store.deleteAll(List.of(1L));
+
+        reopen();
+
+        assertFalse(store.findById(1).isPresent());
+        assertEquals("Completa", store.findById(2).orElseThrow().getStatus());
+        assertEquals(List.of(2L, 3L), ids(store.findRange(0, Long.MAX_VALUE, 10)));
+        assertEquals(4, store.insert(task("Pendente")).getId());
+    }
+
+    @Test
+    void compactionKeepsLiveTasksAndDropsTheOldGeneration() throws IOException {
+        open();
+        List<Task> inserted = store.insertAll(bulk(1_200));
+        store.deleteAll(LongStream.rangeClosed(1, 1_100).boxed().toList());
+
+        store.compactIfNeeded();
+
+        assertEquals(List.of(directory.resolve("store-2.log")), logs());
+        reopen();
+        assertEquals(ids(inserted.subList(1_100, 1_200)), ids(store.findRange(0, Long.MAX_VALUE, 1_000)));
+        assertEquals("Completa", store.countByStatus().keySet().iterator().next());
+    }
+
+    @Test
+    void compactedDeleteOfTheHighestIdIsNotReused() throws IOException {
+        open();
+        store.insertAll(bulk(1_200));
+        store.deleteAll(LongStream.rangeClosed(2, 1_200).boxed().toList());
+
+        store.compactIfNeeded();
+        assertEquals(List.of(directory.resolve("store-2.log")), logs());
+        assertEquals(1_201, store.insert(task("Pendente")).getId());
+
+        store.deleteAll(List.of(1_201L));
+        reopen();
+        assertEquals(List.of(1L), ids(store.findRange(0, Long.MAX_VALUE, 10)));
+        assertEquals(1_202, store.insert(task("Pendente")).getId());
+    }
+
+    @Test
+    void tornTailIsCutOnOpen() throws IOException {
+        open();
+        store.insertAll(List.of(task("Pendente"), task("Completa")));
+        store.close();
+        Files.write(directory.resolve("store-1.log"), new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        open();
+
+        assertEquals(List.of(1L, 2L), ids(store.findRange(0, Long.MAX_VALUE, 10)));
+        assertEquals(3, store.insert(task("Pendente")).getId());
+        reopen();
+        assertTrue(store.findById(3).isPresent());
+    }
+
+    private void open() throws IOException {
+        store = new EmbeddedTaskStore(directory, 0.5);
+        store.open();
+    }
+
+    private void reopen() throws IOException {
+        store.close();
+        open();
+    }
+
+    private List<Path> logs() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<Task> bulk(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = task("Completa");
+            task.setDescription("x".repeat(1_000));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+
+    private static Task task(String status) {
+        Task task = new Task();
+        task.setOwnerName("ana");
+        task.setDescription("Tarefa");
+        task.setStatus(status);
+        task.setStartDate(500L);
+        task.setExpiryDate(1_000L);
+        return task;
+    }
+}